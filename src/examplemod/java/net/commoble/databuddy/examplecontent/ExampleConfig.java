@@ -1,11 +1,13 @@
 package net.commoble.databuddy.examplecontent;
 
+import java.lang.invoke.MethodHandles;
 import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.mojang.serialization.Codec;
-import com.mojang.serialization.codecs.RecordCodecBuilder;
 
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.commoble.databuddy.codec.CompiledRecordCodec;
 import net.commoble.databuddy.config.ConfigHelper;
 import net.commoble.databuddy.config.ConfigHelper.ConfigObject;
 import net.minecraft.core.BlockPos;
@@ -18,7 +20,7 @@ public record ExampleConfig(
 	ConfigValue<Double> bananas,
 	ConfigObject<Integer> incrementableField,
 	ConfigObject<TestObject> testObject,
-	ConfigObject<List<Long>> list)
+	ConfigObject<LongList> list)
 {
 	public static ExampleConfig create(ModConfigSpec.Builder builder)
 	{
@@ -48,7 +50,7 @@ public record ExampleConfig(
 					true));
 		
 		builder.comment("Empty list");
-		ConfigObject<List<Long>> list = ConfigHelper.defineObject(builder, "list", Codec.LONG.listOf(), List.of());
+		ConfigObject<LongList> list = ConfigHelper.defineLongList(builder, "list", LongList.of());
 		
 		builder.pop();
 		
@@ -57,10 +59,10 @@ public record ExampleConfig(
 	
 	public static record TestObject(BlockPos pos, List<ResourceLocation> ids, boolean bool)
 	{
-		public static final Codec<TestObject> CODEC = RecordCodecBuilder.create(instance -> instance.group(
-				BlockPos.CODEC.fieldOf("pos").forGetter(TestObject::pos),
-				ResourceLocation.CODEC.listOf().fieldOf("ids").forGetter(TestObject::ids),
-				Codec.BOOL.fieldOf("bool").forGetter(TestObject::bool)
-			).apply(instance, TestObject::new));	
+		public static final Codec<TestObject> CODEC = CompiledRecordCodec.of(MethodHandles.lookup(), TestObject.class,
+				CompiledRecordCodec.Field.of("pos", BlockPos.CODEC),
+				CompiledRecordCodec.Field.of("ids", ResourceLocation.CODEC.listOf()),
+				CompiledRecordCodec.Field.of("bool", Codec.BOOL))
+			.codec();
 	}
 }
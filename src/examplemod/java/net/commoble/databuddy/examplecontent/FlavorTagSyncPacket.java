@@ -4,8 +4,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.mojang.serialization.Codec;
+
 import io.netty.buffer.ByteBuf;
-import net.minecraft.network.codec.ByteBufCodecs;
+import net.commoble.databuddy.codec.BinaryOps;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
@@ -15,12 +17,9 @@ public class FlavorTagSyncPacket implements CustomPacketPayload
 {
 	public static final CustomPacketPayload.Type<FlavorTagSyncPacket> ID = new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(DataBuddyExampleMod.MODID, "flavor_tags"));
 	
-	// this used to be a map of id->set but I didn't get any sleep last night and I can't brain stream codecs right now
-	// this is just a test class so it doesn't actually have to be useful for anything
-	public static final StreamCodec<ByteBuf, FlavorTagSyncPacket> STREAM_CODEC = StreamCodec.composite(
-		ByteBufCodecs.map(HashMap::new, ResourceLocation.STREAM_CODEC, ResourceLocation.STREAM_CODEC.apply(ByteBufCodecs.list())),
-		p -> p.map,
-		FlavorTagSyncPacket::new);
+	// BinaryOps can derive a StreamCodec from a Codec so we don't have to write one by hand
+	public static final StreamCodec<ByteBuf, FlavorTagSyncPacket> STREAM_CODEC = BinaryOps.streamCodec(Codec.unboundedMap(ResourceLocation.CODEC, ResourceLocation.CODEC.listOf()))
+		.map(FlavorTagSyncPacket::new, p -> p.map);
 	public static Map<ResourceLocation, List<ResourceLocation>> SYNCED_DATA = new HashMap<>(); 
 	
 	private final Map<ResourceLocation, List<ResourceLocation>> map;
@@ -10,6 +10,7 @@ import com.mojang.serialization.JsonOps;
 import com.mojang.serialization.MapCodec;
 
 import net.commoble.databuddy.codec.RegistryDispatcher;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
@@ -30,12 +31,19 @@ public class RegistryDispatcherExampleMod
 	public static final RegistryDispatcher<Cheese> CHEESE_DISPATCHER = RegistryDispatcher.makeDispatchForgeRegistry(
 		ResourceLocation.fromNamespaceAndPath(DataBuddyExampleMod.MODID, "cheese"),
 		cheese -> cheese.getType(), // using a method reference here seems to confuse eclipse
-		builder->{});
+		builder -> builder.sync(true)); // registry must be synced to use the dispatcher's stream codec
 	
 	// RegistryObjects can be created from the dispatcher's deferred registry
 	public static final DeferredHolder<MapCodec<? extends Cheese>, MapCodec<Cheddar>> CHEDDAR = CHEESE_DISPATCHER.defreg()
 		.register("cheddar", () -> MapCodec.unit(new Cheddar()));
 	
+	// serializers can optionally have their own StreamCodecs for syncing data to clients
+	// (otherwise the serializer's codec will be used to sync the data via BinaryOps)
+	static
+	{
+		CHEESE_DISPATCHER.registerStreamCodec(CHEDDAR, StreamCodec.of((buf, cheddar) -> {}, buf -> new Cheddar()));
+	}
+	
 	// Base class for your data classes, instances of this could potentially be parsed from jsons or whatever
 	public static interface Cheese
 	{
@@ -0,0 +1,726 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapLike;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.VarInt;
+import net.minecraft.network.VarLong;
+import net.minecraft.network.codec.StreamCodec;
+
+/**
+ * <p>DynamicOps over plain java objects (maps, lists, strings, boxed primitives, and primitive arrays),
+ * used to derive compact binary {@link StreamCodec}s from {@link Codec}s via {@link #streamCodec(Codec)}.</p>
+ * 
+ * <p>Codecs can only encode to and decode from trees, so derived StreamCodecs still create a tree of java objects,
+ * but this is much lighter than an NBT or json tree and is written without type wrappers. The binary format uses
+ * varints for integers and lengths, and a string table so that repeated strings (such as field names)
+ * are only written once per encoded value.</p>
+ * 
+ * <p>The string table is per value, not per buffer: each call to a derived StreamCodec (or to {@link #write(ByteBuf, Object)})
+ * starts a new table, so that values can be decoded independently of whatever else was written to the same buffer.
+ * To share one table across a whole packet, encode the packet's contents as a single value, e.g. via
+ * {@code streamCodec(codec.listOf())} rather than a list of {@code streamCodec(codec)}.</p>
+ */
+public class BinaryOps implements DynamicOps<Object>
+{
+	/** instance **/
+	public static final BinaryOps INSTANCE = new BinaryOps();
+	
+	/** Maximum depth of nested lists and maps that derived StreamCodecs will decode **/
+	public static final int MAX_DEPTH = 512;
+	
+	private static final Object EMPTY = new Object()
+	{
+		@Override
+		public String toString()
+		{
+			return "empty";
+		}
+	};
+	
+	private static final byte EMPTY_TAG = 0;
+	private static final byte FALSE_TAG = 1;
+	private static final byte TRUE_TAG = 2;
+	private static final byte BYTE_TAG = 3;
+	private static final byte SHORT_TAG = 4;
+	private static final byte INT_TAG = 5;
+	private static final byte LONG_TAG = 6;
+	private static final byte FLOAT_TAG = 7;
+	private static final byte DOUBLE_TAG = 8;
+	private static final byte NEW_STRING_TAG = 9;
+	private static final byte STRING_REFERENCE_TAG = 10;
+	private static final byte LIST_TAG = 11;
+	private static final byte MAP_TAG = 12;
+	private static final byte BYTE_ARRAY_TAG = 13;
+	private static final byte INT_ARRAY_TAG = 14;
+	private static final byte LONG_ARRAY_TAG = 15;
+	
+	/**
+	 * Derives a binary StreamCodec from a Codec
+	 * @param <T> The type of the thing being encoded
+	 * @param codec A codec that does not need registry access
+	 * @return StreamCodec which writes values in a compact binary form. Throws an EncoderException or DecoderException
+	 * if the codec fails to encode or decode a value.
+	 */
+	public static <T> StreamCodec<ByteBuf, T> streamCodec(final Codec<T> codec)
+	{
+		return new StreamCodec<>()
+		{
+			@Override
+			public T decode(ByteBuf buf)
+			{
+				return codec.parse(INSTANCE, read(buf)).getOrThrow(DecoderException::new);
+			}
+
+			@Override
+			public void encode(ByteBuf buf, T value)
+			{
+				write(buf, codec.encodeStart(INSTANCE, value).getOrThrow(EncoderException::new));
+			}
+		};
+	}
+	
+	/**
+	 * Derives a binary StreamCodec from a Codec which may need registry access
+	 * @param <T> The type of the thing being encoded
+	 * @param codec A codec, e.g. one that uses registry holders
+	 * @return StreamCodec which writes values in a compact binary form. Throws an EncoderException or DecoderException
+	 * if the codec fails to encode or decode a value.
+	 */
+	public static <T> StreamCodec<RegistryFriendlyByteBuf, T> streamCodecWithRegistries(final Codec<T> codec)
+	{
+		return new StreamCodec<>()
+		{
+			@Override
+			public T decode(RegistryFriendlyByteBuf buf)
+			{
+				return codec.parse(buf.registryAccess().createSerializationContext(INSTANCE), read(buf)).getOrThrow(DecoderException::new);
+			}
+
+			@Override
+			public void encode(RegistryFriendlyByteBuf buf, T value)
+			{
+				write(buf, codec.encodeStart(buf.registryAccess().createSerializationContext(INSTANCE), value).getOrThrow(EncoderException::new));
+			}
+		};
+	}
+	
+	/**
+	 * Writes a tree created by BinaryOps to a buffer, with its own string table
+	 * @param buf Buffer to write to
+	 * @param input Tree of objects created by BinaryOps
+	 */
+	public static void write(final ByteBuf buf, final Object input)
+	{
+		writeElement(buf, input, new Object2IntOpenHashMap<>());
+	}
+	
+	/**
+	 * Reads a tree written by {@link #write(ByteBuf, Object)} from a buffer
+	 * @param buf Buffer to read from
+	 * @return Tree of objects usable by BinaryOps
+	 */
+	public static Object read(final ByteBuf buf)
+	{
+		return readElement(buf, new ArrayList<>(), 0);
+	}
+	
+	private static void writeElement(final ByteBuf buf, final Object input, final Object2IntMap<String> strings)
+	{
+		if (input instanceof String s)
+		{
+			int index = strings.getOrDefault(s, -1);
+			if (index >= 0)
+			{
+				buf.writeByte(STRING_REFERENCE_TAG);
+				VarInt.write(buf, index);
+			}
+			else
+			{
+				strings.put(s, strings.size());
+				buf.writeByte(NEW_STRING_TAG);
+				byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+				VarInt.write(buf, bytes.length);
+				buf.writeBytes(bytes);
+			}
+		}
+		else if (input instanceof Map<?,?> map)
+		{
+			buf.writeByte(MAP_TAG);
+			VarInt.write(buf, map.size());
+			for (var entry : map.entrySet())
+			{
+				writeElement(buf, entry.getKey(), strings);
+				writeElement(buf, entry.getValue(), strings);
+			}
+		}
+		else if (input instanceof List<?> list)
+		{
+			buf.writeByte(LIST_TAG);
+			VarInt.write(buf, list.size());
+			for (Object element : list)
+			{
+				writeElement(buf, element, strings);
+			}
+		}
+		else if (input instanceof Integer i)
+		{
+			buf.writeByte(INT_TAG);
+			VarInt.write(buf, (i << 1) ^ (i >> 31));
+		}
+		else if (input instanceof Boolean b)
+		{
+			buf.writeByte(b ? TRUE_TAG : FALSE_TAG);
+		}
+		else if (input instanceof Long l)
+		{
+			buf.writeByte(LONG_TAG);
+			VarLong.write(buf, (l << 1) ^ (l >> 63));
+		}
+		else if (input instanceof Byte b)
+		{
+			buf.writeByte(BYTE_TAG);
+			buf.writeByte(b);
+		}
+		else if (input instanceof Short s)
+		{
+			buf.writeByte(SHORT_TAG);
+			buf.writeShort(s);
+		}
+		else if (input instanceof Float f)
+		{
+			buf.writeByte(FLOAT_TAG);
+			buf.writeFloat(f);
+		}
+		else if (input instanceof Number n)
+		{
+			buf.writeByte(DOUBLE_TAG);
+			buf.writeDouble(n.doubleValue());
+		}
+		else if (input instanceof byte[] bytes)
+		{
+			buf.writeByte(BYTE_ARRAY_TAG);
+			VarInt.write(buf, bytes.length);
+			buf.writeBytes(bytes);
+		}
+		else if (input instanceof int[] ints)
+		{
+			buf.writeByte(INT_ARRAY_TAG);
+			VarInt.write(buf, ints.length);
+			for (int i : ints)
+			{
+				VarInt.write(buf, (i << 1) ^ (i >> 31));
+			}
+		}
+		else if (input instanceof long[] longs)
+		{
+			buf.writeByte(LONG_ARRAY_TAG);
+			VarInt.write(buf, longs.length);
+			for (long l : longs)
+			{
+				VarLong.write(buf, (l << 1) ^ (l >> 63));
+			}
+		}
+		else if (input == EMPTY)
+		{
+			buf.writeByte(EMPTY_TAG);
+		}
+		else
+		{
+			throw new EncoderException("BinaryOps cannot write value: " + input);
+		}
+	}
+	
+	private static Object readElement(final ByteBuf buf, final List<String> strings, final int depth)
+	{
+		if (depth > MAX_DEPTH)
+		{
+			throw new DecoderException("BinaryOps tree exceeds max depth of " + MAX_DEPTH);
+		}
+		byte tag = buf.readByte();
+		switch(tag)
+		{
+			case EMPTY_TAG: return EMPTY;
+			case FALSE_TAG: return Boolean.FALSE;
+			case TRUE_TAG: return Boolean.TRUE;
+			case BYTE_TAG: return buf.readByte();
+			case SHORT_TAG: return buf.readShort();
+			case INT_TAG: return readZigZagInt(buf);
+			case LONG_TAG: return readZigZagLong(buf);
+			case FLOAT_TAG: return buf.readFloat();
+			case DOUBLE_TAG: return buf.readDouble();
+			case NEW_STRING_TAG:
+			{
+				int length = readSize(buf);
+				String s = buf.readCharSequence(length, StandardCharsets.UTF_8).toString();
+				strings.add(s);
+				return s;
+			}
+			case STRING_REFERENCE_TAG:
+			{
+				int index = VarInt.read(buf);
+				if (index < 0 || index >= strings.size())
+				{
+					throw new DecoderException("BinaryOps string reference out of bounds: " + index);
+				}
+				return strings.get(index);
+			}
+			case LIST_TAG:
+			{
+				int size = readSize(buf);
+				List<Object> list = new ArrayList<>(size);
+				for (int i=0; i<size; i++)
+				{
+					list.add(readElement(buf, strings, depth + 1));
+				}
+				return list;
+			}
+			case MAP_TAG:
+			{
+				int size = readSize(buf);
+				Map<Object,Object> map = new LinkedHashMap<>(size);
+				for (int i=0; i<size; i++)
+				{
+					Object key = readElement(buf, strings, depth + 1);
+					map.put(key, readElement(buf, strings, depth + 1));
+				}
+				return map;
+			}
+			case BYTE_ARRAY_TAG:
+			{
+				byte[] bytes = new byte[readSize(buf)];
+				buf.readBytes(bytes);
+				return bytes;
+			}
+			case INT_ARRAY_TAG:
+			{
+				int[] ints = new int[readSize(buf)];
+				for (int i=0; i<ints.length; i++)
+				{
+					ints[i] = readZigZagInt(buf);
+				}
+				return ints;
+			}
+			case LONG_ARRAY_TAG:
+			{
+				long[] longs = new long[readSize(buf)];
+				for (int i=0; i<longs.length; i++)
+				{
+					longs[i] = readZigZagLong(buf);
+				}
+				return longs;
+			}
+			default: throw new DecoderException("Unknown BinaryOps tag: " + tag);
+		}
+	}
+	
+	/**
+	 * Reads a size and checks it against the remaining bytes (every element is at least one byte),
+	 * so that malformed buffers can't cause huge allocations
+	 */
+	private static int readSize(final ByteBuf buf)
+	{
+		int size = VarInt.read(buf);
+		if (size < 0 || size > buf.readableBytes())
+		{
+			throw new DecoderException("BinaryOps size out of bounds: " + size);
+		}
+		return size;
+	}
+	
+	private static int readZigZagInt(final ByteBuf buf)
+	{
+		int i = VarInt.read(buf);
+		return (i >>> 1) ^ -(i & 1);
+	}
+	
+	private static long readZigZagLong(final ByteBuf buf)
+	{
+		long l = VarLong.read(buf);
+		return (l >>> 1) ^ -(l & 1L);
+	}
+
+	@Override
+	public Object empty()
+	{
+		return EMPTY;
+	}
+
+	@Override
+	public <U> U convertTo(final DynamicOps<U> outOps, final Object input)
+	{
+		if (input instanceof Map)
+		{
+			return OpsTranscoder.transcodeMap(this, outOps, input);
+		}
+		if (input instanceof List)
+		{
+			return OpsTranscoder.transcodeList(this, outOps, input);
+		}
+		if (input instanceof String s)
+		{
+			return outOps.createString(s);
+		}
+		if (input instanceof Boolean b)
+		{
+			return outOps.createBoolean(b);
+		}
+		if (input instanceof Byte b)
+		{
+			return outOps.createByte(b);
+		}
+		if (input instanceof Short s)
+		{
+			return outOps.createShort(s);
+		}
+		if (input instanceof Integer i)
+		{
+			return outOps.createInt(i);
+		}
+		if (input instanceof Long l)
+		{
+			return outOps.createLong(l);
+		}
+		if (input instanceof Float f)
+		{
+			return outOps.createFloat(f);
+		}
+		if (input instanceof Number n)
+		{
+			return outOps.createNumeric(n);
+		}
+		if (input instanceof byte[] bytes)
+		{
+			return outOps.createByteList(ByteBuffer.wrap(bytes));
+		}
+		if (input instanceof int[] ints)
+		{
+			return outOps.createIntList(Arrays.stream(ints));
+		}
+		if (input instanceof long[] longs)
+		{
+			return outOps.createLongList(Arrays.stream(longs));
+		}
+		return outOps.empty();
+	}
+
+	@Override
+	public DataResult<Number> getNumberValue(final Object input)
+	{
+		return input instanceof Number n
+			? DataResult.success(n)
+			: DataResult.error(() -> "Not a number: " + input);
+	}
+
+	@Override
+	public Object createNumeric(final Number i)
+	{
+		return i;
+	}
+
+	@Override
+	public Object createBoolean(final boolean value)
+	{
+		return value;
+	}
+
+	@Override
+	public DataResult<Boolean> getBooleanValue(final Object input)
+	{
+		if (input instanceof Boolean b)
+		{
+			return DataResult.success(b);
+		}
+		if (input instanceof Number n)
+		{
+			return DataResult.success(n.byteValue() != 0);
+		}
+		return DataResult.error(() -> "Not a boolean: " + input);
+	}
+
+	@Override
+	public DataResult<String> getStringValue(final Object input)
+	{
+		return input instanceof String s
+			? DataResult.success(s)
+			: DataResult.error(() -> "Not a string: " + input);
+	}
+
+	@Override
+	public Object createString(final String value)
+	{
+		return value;
+	}
+
+	@Override
+	public DataResult<Object> mergeToList(final Object list, final Object value)
+	{
+		if (list != EMPTY && !(list instanceof List))
+		{
+			return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+		}
+		List<Object> result = new ArrayList<>();
+		if (list instanceof List<?> oldList)
+		{
+			result.addAll(oldList);
+		}
+		result.add(value);
+		return DataResult.success(result);
+	}
+
+	@Override
+	public DataResult<Object> mergeToList(final Object list, final List<Object> values)
+	{
+		if (list != EMPTY && !(list instanceof List))
+		{
+			return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+		}
+		List<Object> result = new ArrayList<>();
+		if (list instanceof List<?> oldList)
+		{
+			result.addAll(oldList);
+		}
+		result.addAll(values);
+		return DataResult.success(result);
+	}
+
+	@Override
+	public DataResult<Object> mergeToMap(final Object map, final Object key, final Object value)
+	{
+		if (map != EMPTY && !(map instanceof Map))
+		{
+			return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+		}
+		Map<Object,Object> result = new LinkedHashMap<>();
+		if (map instanceof Map<?,?> oldMap)
+		{
+			result.putAll(oldMap);
+		}
+		result.put(key, value);
+		return DataResult.success(result);
+	}
+
+	@Override
+	public DataResult<Object> mergeToMap(final Object map, final Map<Object, Object> values)
+	{
+		if (map != EMPTY && !(map instanceof Map))
+		{
+			return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+		}
+		Map<Object,Object> result = new LinkedHashMap<>();
+		if (map instanceof Map<?,?> oldMap)
+		{
+			result.putAll(oldMap);
+		}
+		result.putAll(values);
+		return DataResult.success(result);
+	}
+
+	@Override
+	public DataResult<Stream<Pair<Object, Object>>> getMapValues(final Object input)
+	{
+		return input instanceof Map<?,?> map
+			? DataResult.success(map.entrySet().stream().map(entry -> Pair.<Object,Object>of(entry.getKey(), entry.getValue())))
+			: DataResult.error(() -> "Not a map: " + input);
+	}
+
+	@Override
+	public DataResult<Consumer<BiConsumer<Object, Object>>> getMapEntries(final Object input)
+	{
+		return input instanceof Map<?,?> map
+			? DataResult.success(consumer -> map.forEach(consumer::accept))
+			: DataResult.error(() -> "Not a map: " + input);
+	}
+
+	@Override
+	public DataResult<MapLike<Object>> getMap(final Object input)
+	{
+		if (!(input instanceof Map<?,?> map))
+		{
+			return DataResult.error(() -> "Not a map: " + input);
+		}
+		return DataResult.success(new MapLike<>()
+		{
+			@Override
+			public @Nullable Object get(Object key)
+			{
+				return map.get(key);
+			}
+
+			@Override
+			public @Nullable Object get(String key)
+			{
+				return map.get(key);
+			}
+
+			@Override
+			public Stream<Pair<Object, Object>> entries()
+			{
+				return map.entrySet().stream().map(entry -> Pair.<Object,Object>of(entry.getKey(), entry.getValue()));
+			}
+			
+			@Override
+			public String toString()
+			{
+				return "MapLike[" + map + "]";
+			}
+		});
+	}
+
+	@Override
+	public Object createMap(final Stream<Pair<Object, Object>> map)
+	{
+		Map<Object,Object> result = new LinkedHashMap<>();
+		map.forEach(pair -> result.put(pair.getFirst(), pair.getSecond()));
+		return result;
+	}
+
+	@Override
+	public DataResult<Stream<Object>> getStream(final Object input)
+	{
+		if (input instanceof List<?> list)
+		{
+			return DataResult.success(list.stream().map(Object.class::cast));
+		}
+		if (input instanceof byte[] bytes)
+		{
+			return DataResult.success(IntStream.range(0, bytes.length).<Object>mapToObj(i -> bytes[i]));
+		}
+		if (input instanceof int[] ints)
+		{
+			return DataResult.success(Arrays.stream(ints).<Object>mapToObj(i -> i));
+		}
+		if (input instanceof long[] longs)
+		{
+			return DataResult.success(Arrays.stream(longs).<Object>mapToObj(l -> l));
+		}
+		return DataResult.error(() -> "Not a list: " + input);
+	}
+
+	@Override
+	public DataResult<Consumer<Consumer<Object>>> getList(final Object input)
+	{
+		return input instanceof List<?> list
+			? DataResult.success(consumer -> list.forEach(consumer))
+			: DynamicOps.super.getList(input);
+	}
+
+	@Override
+	public Object createList(final Stream<Object> input)
+	{
+		return input.collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+	}
+
+	@Override
+	public DataResult<ByteBuffer> getByteBuffer(final Object input)
+	{
+		return input instanceof byte[] bytes
+			? DataResult.success(ByteBuffer.wrap(bytes))
+			: DynamicOps.super.getByteBuffer(input);
+	}
+
+	@Override
+	public Object createByteList(final ByteBuffer input)
+	{
+		ByteBuffer buffer = input.duplicate();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	public DataResult<IntStream> getIntStream(final Object input)
+	{
+		return input instanceof int[] ints
+			? DataResult.success(Arrays.stream(ints))
+			: DynamicOps.super.getIntStream(input);
+	}
+
+	@Override
+	public Object createIntList(final IntStream input)
+	{
+		return input.toArray();
+	}
+
+	@Override
+	public DataResult<LongStream> getLongStream(final Object input)
+	{
+		return input instanceof long[] longs
+			? DataResult.success(Arrays.stream(longs))
+			: DynamicOps.super.getLongStream(input);
+	}
+
+	@Override
+	public Object createLongList(final LongStream input)
+	{
+		return input.toArray();
+	}
+
+	@Override
+	public Object remove(final Object input, final String key)
+	{
+		if (input instanceof Map<?,?> map && map.containsKey(key))
+		{
+			Map<Object,Object> result = new LinkedHashMap<>(map);
+			result.remove(key);
+			return result;
+		}
+		return input;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Binary";
+	}
+}
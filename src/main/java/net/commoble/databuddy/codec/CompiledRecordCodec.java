@@ -0,0 +1,306 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+
+/**
+ * <p>MapCodec for java records, comparable to a RecordCodecBuilder codec whose fields are all fieldOf or optionalFieldOf fields
+ * in the same order as the record's components. Rather than combining per-field DataResults via applicative functors,
+ * this decodes each field into an array and invokes the record's canonical constructor via a MethodHandle,
+ * which avoids most of the per-field and per-object allocations of RecordCodecBuilder when decoding succeeds.
+ * Errors are only assembled when a field fails to decode.</p>
+ * 
+ * <pre>
+ * public static record Cheese(int age, String flavor)
+ * {
+ * 	public static final Codec&lt;Cheese&gt; CODEC = CompiledRecordCodec.of(MethodHandles.lookup(), Cheese.class,
+ * 		CompiledRecordCodec.Field.of("age", Codec.INT),
+ * 		CompiledRecordCodec.Field.optional("flavor", Codec.STRING, "cheddar"))
+ * 		.codec();
+ * }
+ * </pre>
+ * @param <R> Record type
+ */
+public class CompiledRecordCodec<R extends Record> extends MapCodec<R>
+{
+	private final Class<R> recordClass;
+	private final Field<?>[] fields;
+	/** (Object[])Object **/
+	private final MethodHandle constructor;
+	/** (Object)Object **/
+	private final MethodHandle[] accessors;
+	
+	/**
+	 * Creates a CompiledRecordCodec for a record class
+	 * @param <R> Record type
+	 * @param lookup Lookup with access to the record's canonical constructor and accessors, e.g. MethodHandles.lookup() from the record's class
+	 * @param recordClass Class of the record
+	 * @param fields Fields to serialize, one for each record component, in the same order as the components
+	 * @return CompiledRecordCodec for the record
+	 * @throws IllegalArgumentException if the number of fields doesn't match the number of record components,
+	 * or the lookup doesn't have access to the record's constructor or accessors
+	 */
+	public static <R extends Record> CompiledRecordCodec<R> of(MethodHandles.Lookup lookup, Class<R> recordClass, Field<?>... fields)
+	{
+		RecordComponent[] components = recordClass.getRecordComponents();
+		if (components.length != fields.length)
+		{
+			throw new IllegalArgumentException(String.format("Record %s has %s components but %s fields were given", recordClass.getName(), components.length, fields.length));
+		}
+		int size = components.length;
+		Class<?>[] componentTypes = new Class<?>[size];
+		MethodHandle[] accessors = new MethodHandle[size];
+		try
+		{
+			for (int i=0; i<size; i++)
+			{
+				RecordComponent component = components[i];
+				componentTypes[i] = component.getType();
+				accessors[i] = lookup.unreflect(component.getAccessor())
+					.asType(MethodType.methodType(Object.class, Object.class));
+			}
+			MethodHandle constructor = lookup.findConstructor(recordClass, MethodType.methodType(void.class, componentTypes))
+				.asSpreader(Object[].class, size)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+			return new CompiledRecordCodec<>(recordClass, fields.clone(), constructor, accessors);
+		}
+		catch (NoSuchMethodException | IllegalAccessException e)
+		{
+			throw new IllegalArgumentException("Cannot access canonical constructor or accessors of record " + recordClass.getName(), e);
+		}
+	}
+	
+	protected CompiledRecordCodec(Class<R> recordClass, Field<?>[] fields, MethodHandle constructor, MethodHandle[] accessors)
+	{
+		this.recordClass = recordClass;
+		this.fields = fields;
+		this.constructor = constructor;
+		this.accessors = accessors;
+	}
+
+	@Override
+	public <T> Stream<T> keys(DynamicOps<T> ops)
+	{
+		return Arrays.stream(this.fields).map(field -> ops.createString(field.name()));
+	}
+
+	@Override
+	public <T> DataResult<R> decode(DynamicOps<T> ops, MapLike<T> input)
+	{
+		final int size = this.fields.length;
+		final Object[] values = new Object[size];
+		for (int i=0; i<size; i++)
+		{
+			final Field<?> field = this.fields[i];
+			final T raw = input.get(field.name());
+			if (raw == null)
+			{
+				if (field.optional())
+				{
+					values[i] = field.defaultValue();
+					continue;
+				}
+				return this.decodeWithErrors(ops, input);
+			}
+			final DataResult<? extends Pair<?,T>> result = field.codec().decode(ops, raw);
+			if (result instanceof DataResult.Success<? extends Pair<?,T>> success)
+			{
+				values[i] = success.value().getFirst();
+			}
+			else
+			{
+				return this.decodeWithErrors(ops, input);
+			}
+		}
+		return this.construct(values);
+	}
+	
+	/**
+	 * Decodes each field, collecting error messages, and returns an error result with a partial record if every field had a partial result
+	 */
+	private <T> DataResult<R> decodeWithErrors(DynamicOps<T> ops, MapLike<T> input)
+	{
+		final int size = this.fields.length;
+		final Object[] values = new Object[size];
+		final List<String> errors = new ArrayList<>();
+		boolean complete = true;
+		for (int i=0; i<size; i++)
+		{
+			final Field<?> field = this.fields[i];
+			final T raw = input.get(field.name());
+			if (raw == null)
+			{
+				if (field.optional())
+				{
+					values[i] = field.defaultValue();
+				}
+				else
+				{
+					errors.add("No key " + field.name() + " in " + input);
+					complete = false;
+				}
+				continue;
+			}
+			final Optional<? extends Pair<?,T>> partial = field.codec().decode(ops, raw).resultOrPartial(errors::add);
+			if (partial.isPresent())
+			{
+				values[i] = partial.get().getFirst();
+			}
+			else
+			{
+				complete = false;
+			}
+		}
+		if (errors.isEmpty())
+		{
+			return this.construct(values);
+		}
+		final String message = String.join("; ", errors);
+		if (complete && this.construct(values) instanceof DataResult.Success<R> success)
+		{
+			return DataResult.error(() -> message, success.value());
+		}
+		return DataResult.error(() -> message);
+	}
+	
+	private DataResult<R> construct(Object[] values)
+	{
+		try
+		{
+			final Object record = this.constructor.invokeExact(values);
+			return DataResult.success(this.recordClass.cast(record));
+		}
+		catch (RuntimeException e)
+		{
+			return DataResult.error(() -> "Failed to construct " + this.recordClass.getName() + ": " + e.getMessage());
+		}
+		catch (Throwable t)
+		{
+			throw new IllegalStateException("Failed to construct " + this.recordClass.getName(), t);
+		}
+	}
+
+	@Override
+	public <T> RecordBuilder<T> encode(R input, DynamicOps<T> ops, RecordBuilder<T> prefix)
+	{
+		RecordBuilder<T> builder = prefix;
+		final int size = this.fields.length;
+		for (int i=0; i<size; i++)
+		{
+			final Object value = this.getComponent(i, input);
+			builder = this.fields[i].encode(value, ops, builder);
+		}
+		return builder;
+	}
+	
+	private Object getComponent(int index, R input)
+	{
+		try
+		{
+			return this.accessors[index].invokeExact((Object)input);
+		}
+		catch (RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Throwable t)
+		{
+			throw new IllegalStateException("Failed to get component " + this.fields[index].name() + " of " + input, t);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CompiledRecordCodec[" + this.recordClass.getName() + "]";
+	}
+	
+	/**
+	 * Describes a field of a record for a CompiledRecordCodec
+	 * @param <A> Type of the field's value
+	 * @param name Key of the field in serialized data
+	 * @param codec Codec for the field's value
+	 * @param optional Whether the field is optional. Optional fields use the default value if not present,
+	 * and are not written if their value is equal to the default value.
+	 * @param defaultValue Default value of optional fields, null for required fields
+	 */
+	public static record Field<A>(String name, Codec<A> codec, boolean optional, A defaultValue)
+	{
+		/**
+		 * Creates a required field, equivalent to codec.fieldOf(name)
+		 * @param <A> Type of the field's value
+		 * @param name Key of the field in serialized data
+		 * @param codec Codec for the field's value
+		 * @return Field
+		 */
+		public static <A> Field<A> of(String name, Codec<A> codec)
+		{
+			return new Field<>(name, codec, false, null);
+		}
+		
+		/**
+		 * Creates an optional field, equivalent to codec.optionalFieldOf(name, defaultValue)
+		 * @param <A> Type of the field's value
+		 * @param name Key of the field in serialized data
+		 * @param codec Codec for the field's value
+		 * @param defaultValue Value to use when the field is not present
+		 * @return Field
+		 */
+		public static <A> Field<A> optional(String name, Codec<A> codec, A defaultValue)
+		{
+			return new Field<>(name, codec, true, defaultValue);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private <T> RecordBuilder<T> encode(Object value, DynamicOps<T> ops, RecordBuilder<T> builder)
+		{
+			if (this.optional && Objects.equals(value, this.defaultValue))
+			{
+				return builder;
+			}
+			return builder.add(this.name, this.codec.encodeStart(ops, (A)value));
+		}
+	}
+}
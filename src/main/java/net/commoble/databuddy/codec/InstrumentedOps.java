@@ -0,0 +1,354 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.MapMaker;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.resources.DelegatingOps;
+import net.minecraft.resources.RegistryOps;
+
+/**
+ * <p>Delegating DynamicOps that records profiling data for codecs wrapped via {@link #instrument(String, Codec)}
+ * or {@link #instrument(String, MapCodec)}. When an instrumented codec is used with an InstrumentedOps, the ops records
+ * the number of calls, elapsed time, and (where supported by the JVM) bytes allocated by the calling thread for that codec's name.
+ * Instrumented codecs used with any other ops only pay for a type check (and, for RegistryOps, an identity check against
+ * the last RegistryOps they were used with).</p>
+ * 
+ * <p>Instrumented variants of the dispatched codecs created by {@link RegistryDispatcher} are available via
+ * {@link RegistryDispatcher#instrumentedCodec()}, using the registry id as the name for the dispatched codec
+ * and "registryid/typeid" as the name for each serializer type.</p>
+ * 
+ * <p>Recorded data is available via {@link #getStats()}, and each instrumented call also emits a "databuddy.CodecCall" JFR event
+ * when that event is enabled in a flight recording. Times and allocations include those of nested codecs.</p>
+ * 
+ * <p>Codecs that require {@link RegistryOps} will not work with an InstrumentedOps wrapped around a RegistryOps;
+ * use {@link #withRegistries(HolderLookup.Provider)} to create RegistryOps around the InstrumentedOps instead.</p>
+ * @param <T> The type of serialized data, e.g. JsonElement
+ */
+public class InstrumentedOps<T> extends DelegatingOps<T>
+{
+	private static final @Nullable com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+	/** RegistryOps created via withRegistries, to the InstrumentedOps they wrap **/
+	private static final ConcurrentMap<DynamicOps<?>, InstrumentedOps<?>> WRAPPED_OPS = new MapMaker().weakKeys().makeMap();
+	/** Result of the most recent RegistryOps lookup; the same RegistryOps is typically used for many calls in a row **/
+	private static volatile WrappedOpsLookup lastLookup = new WrappedOpsLookup(new WeakReference<>(null), null);
+	
+	private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param <T> The type of serialized data, e.g. JsonElement
+	 * @param delegate The DynamicOps to delegate to, e.g. JsonOps.INSTANCE
+	 * @return A new InstrumentedOps with no recorded data
+	 */
+	public static <T> InstrumentedOps<T> of(final DynamicOps<T> delegate)
+	{
+		return new InstrumentedOps<>(delegate);
+	}
+	
+	/**
+	 * @param delegate The DynamicOps to delegate to
+	 */
+	protected InstrumentedOps(final DynamicOps<T> delegate)
+	{
+		super(delegate);
+	}
+	
+	/**
+	 * Creates RegistryOps which delegate to this InstrumentedOps, for use with codecs that need registry access.
+	 * Instrumented codecs used with the returned ops record their data to this InstrumentedOps.
+	 * @param registries Registry lookup, e.g. from a RegistryAccess or a ReloadableServerResources
+	 * @return RegistryOps wrapping this
+	 */
+	public RegistryOps<T> withRegistries(final HolderLookup.Provider registries)
+	{
+		RegistryOps<T> ops = registries.createSerializationContext(this);
+		WRAPPED_OPS.put(ops, this);
+		return ops;
+	}
+	
+	/**
+	 * @return Snapshot of the data recorded so far, sorted by codec name
+	 */
+	public Map<String, CodecStats> getStats()
+	{
+		Map<String, CodecStats> stats = new TreeMap<>();
+		this.recorders.forEach((name, recorder) -> stats.put(name, recorder.snapshot()));
+		return stats;
+	}
+	
+	/**
+	 * Clears all recorded data
+	 */
+	public void reset()
+	{
+		this.recorders.clear();
+	}
+	
+	/**
+	 * Wraps a codec so that its calls are recorded when used with an InstrumentedOps
+	 * @param <A> The type of the thing being encoded
+	 * @param name The name to record calls under
+	 * @param codec The codec to instrument
+	 * @return A codec that behaves identically to the given codec
+	 */
+	public static <A> Codec<A> instrument(final String name, final Codec<A> codec)
+	{
+		return new Codec<>()
+		{
+			@Override
+			public <U> DataResult<U> encode(A input, DynamicOps<U> ops, U prefix)
+			{
+				@Nullable InstrumentedOps<?> instrumentedOps = find(ops);
+				if (instrumentedOps == null)
+				{
+					return codec.encode(input, ops, prefix);
+				}
+				Call call = instrumentedOps.begin(name, "encode");
+				DataResult<U> result = codec.encode(input, ops, prefix);
+				call.end();
+				return result;
+			}
+
+			@Override
+			public <U> DataResult<Pair<A, U>> decode(DynamicOps<U> ops, U input)
+			{
+				@Nullable InstrumentedOps<?> instrumentedOps = find(ops);
+				if (instrumentedOps == null)
+				{
+					return codec.decode(ops, input);
+				}
+				Call call = instrumentedOps.begin(name, "decode");
+				DataResult<Pair<A, U>> result = codec.decode(ops, input);
+				call.end();
+				return result;
+			}
+			
+			@Override
+			public String toString()
+			{
+				return "Instrumented[" + name + "]";
+			}
+		};
+	}
+	
+	/**
+	 * Wraps a MapCodec so that its calls are recorded when used with an InstrumentedOps
+	 * @param <A> The type of the thing being encoded
+	 * @param name The name to record calls under
+	 * @param codec The MapCodec to instrument
+	 * @return A MapCodec that behaves identically to the given MapCodec
+	 */
+	public static <A> MapCodec<A> instrument(final String name, final MapCodec<A> codec)
+	{
+		return new MapCodec<>()
+		{
+			@Override
+			public <U> Stream<U> keys(DynamicOps<U> ops)
+			{
+				return codec.keys(ops);
+			}
+
+			@Override
+			public <U> DataResult<A> decode(DynamicOps<U> ops, MapLike<U> input)
+			{
+				@Nullable InstrumentedOps<?> instrumentedOps = find(ops);
+				if (instrumentedOps == null)
+				{
+					return codec.decode(ops, input);
+				}
+				Call call = instrumentedOps.begin(name, "decode");
+				DataResult<A> result = codec.decode(ops, input);
+				call.end();
+				return result;
+			}
+
+			@Override
+			public <U> RecordBuilder<U> encode(A input, DynamicOps<U> ops, RecordBuilder<U> prefix)
+			{
+				@Nullable InstrumentedOps<?> instrumentedOps = find(ops);
+				if (instrumentedOps == null)
+				{
+					return codec.encode(input, ops, prefix);
+				}
+				Call call = instrumentedOps.begin(name, "encode");
+				RecordBuilder<U> result = codec.encode(input, ops, prefix);
+				call.end();
+				return result;
+			}
+			
+			@Override
+			public String toString()
+			{
+				return "Instrumented[" + name + "]";
+			}
+		};
+	}
+	
+	private static @Nullable InstrumentedOps<?> find(final DynamicOps<?> ops)
+	{
+		if (ops instanceof InstrumentedOps<?> instrumentedOps)
+		{
+			return instrumentedOps;
+		}
+		// RegistryOps can't be subclassed, so the ones created by withRegistries are recognized by identity
+		if (!(ops instanceof RegistryOps<?>) || WRAPPED_OPS.isEmpty())
+		{
+			return null;
+		}
+		WrappedOpsLookup lookup = lastLookup;
+		if (lookup.ops().get() != ops)
+		{
+			lookup = new WrappedOpsLookup(new WeakReference<>(ops), WRAPPED_OPS.get(ops));
+			lastLookup = lookup;
+		}
+		return lookup.instrumentedOps();
+	}
+	
+	// weak so the last RegistryOps (and the registries it holds) can still be collected after a world is closed
+	private static record WrappedOpsLookup(WeakReference<DynamicOps<?>> ops, @Nullable InstrumentedOps<?> instrumentedOps) {}
+	
+	private Call begin(final String name, final String operation)
+	{
+		Recorder recorder = this.recorders.computeIfAbsent(name, n -> new Recorder());
+		CodecCallEvent event = new CodecCallEvent();
+		event.begin();
+		return new Call(recorder, event, name, operation, System.nanoTime(), allocatedBytes());
+	}
+	
+	private static long allocatedBytes()
+	{
+		return THREAD_BEAN == null ? 0L : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+	}
+	
+	private static @Nullable com.sun.management.ThreadMXBean getThreadBean()
+	{
+		try
+		{
+			if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported())
+			{
+				bean.setThreadAllocatedMemoryEnabled(true);
+				return bean;
+			}
+		}
+		catch (UnsupportedOperationException | SecurityException e)
+		{
+			// fall through, allocation tracking is best-effort
+		}
+		return null;
+	}
+	
+	/**
+	 * Recorded data for one codec name
+	 * @param decodeCalls Number of times the codec decoded something
+	 * @param decodeNanos Total time spent decoding, in nanoseconds
+	 * @param decodeBytes Approximate total bytes allocated while decoding, or 0 if the JVM doesn't support allocation tracking
+	 * @param encodeCalls Number of times the codec encoded something
+	 * @param encodeNanos Total time spent encoding, in nanoseconds
+	 * @param encodeBytes Approximate total bytes allocated while encoding, or 0 if the JVM doesn't support allocation tracking
+	 */
+	public static record CodecStats(long decodeCalls, long decodeNanos, long decodeBytes, long encodeCalls, long encodeNanos, long encodeBytes) {}
+	
+	private static class Recorder
+	{
+		private final LongAdder decodeCalls = new LongAdder();
+		private final LongAdder decodeNanos = new LongAdder();
+		private final LongAdder decodeBytes = new LongAdder();
+		private final LongAdder encodeCalls = new LongAdder();
+		private final LongAdder encodeNanos = new LongAdder();
+		private final LongAdder encodeBytes = new LongAdder();
+		
+		private CodecStats snapshot()
+		{
+			return new CodecStats(
+				this.decodeCalls.sum(), this.decodeNanos.sum(), this.decodeBytes.sum(),
+				this.encodeCalls.sum(), this.encodeNanos.sum(), this.encodeBytes.sum());
+		}
+	}
+	
+	private static record Call(Recorder recorder, CodecCallEvent event, String name, String operation, long startNanos, long startBytes)
+	{
+		private void end()
+		{
+			long nanos = System.nanoTime() - this.startNanos;
+			long bytes = allocatedBytes() - this.startBytes;
+			boolean decode = this.operation.equals("decode");
+			(decode ? this.recorder.decodeCalls : this.recorder.encodeCalls).increment();
+			(decode ? this.recorder.decodeNanos : this.recorder.encodeNanos).add(nanos);
+			(decode ? this.recorder.decodeBytes : this.recorder.encodeBytes).add(bytes);
+			this.event.end();
+			if (this.event.shouldCommit())
+			{
+				this.event.codec = this.name;
+				this.event.operation = this.operation;
+				this.event.allocatedBytes = bytes;
+				this.event.commit();
+			}
+		}
+	}
+	
+	@Name("databuddy.CodecCall")
+	@Label("Codec Call")
+	@Category("Databuddy")
+	@Description("A call to a codec instrumented via InstrumentedOps")
+	private static class CodecCallEvent extends Event
+	{
+		@Label("Codec")
+		private String codec;
+		
+		@Label("Operation")
+		private String operation;
+		
+		@Label("Allocated")
+		@DataAmount
+		private long allocatedBytes;
+	}
+}
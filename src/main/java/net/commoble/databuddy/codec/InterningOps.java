@@ -0,0 +1,108 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.JsonElement;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+
+import net.minecraft.resources.DelegatingOps;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * <p>Delegating DynamicOps that interns strings when deserializing data, so that equal strings read by
+ * codecs (map keys, string values, ids, etc) share one instance across everything decoded with any InterningOps.
+ * Interned strings are weakly held and are garbage collected once no decoded data refers to them.</p>
+ * 
+ * <p>Codecs that read ResourceLocations can use {@link #RESOURCE_LOCATION_CODEC} to also share ResourceLocation instances.</p>
+ * 
+ * <p>For codecs that require {@link RegistryOps}, create RegistryOps around the InterningOps, e.g.
+ * registries.createSerializationContext(InterningOps.of(JsonOps.INSTANCE))</p>
+ * @param <T> The type of serialized data, e.g. JsonElement
+ */
+public class InterningOps<T> extends DelegatingOps<T>
+{
+	private static final Interner<String> STRINGS = Interners.newWeakInterner();
+	private static final Interner<ResourceLocation> RESOURCE_LOCATIONS = Interners.newWeakInterner();
+	
+	/**
+	 * JsonOps that interns strings when deserializing
+	 */
+	public static final InterningOps<JsonElement> JSON = new InterningOps<>(JsonOps.INSTANCE);
+	
+	/**
+	 * ResourceLocation codec that returns canonical ResourceLocation instances when decoding
+	 */
+	public static final Codec<ResourceLocation> RESOURCE_LOCATION_CODEC = ResourceLocation.CODEC.xmap(InterningOps::intern, id -> id);
+	
+	/**
+	 * @param <T> The type of serialized data, e.g. JsonElement
+	 * @param delegate DynamicOps to delegate to
+	 * @return DynamicOps that interns strings when deserializing data
+	 */
+	public static <T> InterningOps<T> of(final DynamicOps<T> delegate)
+	{
+		return new InterningOps<>(delegate);
+	}
+	
+	/**
+	 * @param delegate DynamicOps to delegate to
+	 */
+	protected InterningOps(final DynamicOps<T> delegate)
+	{
+		super(delegate);
+	}
+	
+	/**
+	 * @param string A string
+	 * @return The canonical instance of a string equal to the given string
+	 */
+	public static String intern(final String string)
+	{
+		return STRINGS.intern(string);
+	}
+	
+	/**
+	 * @param id A ResourceLocation
+	 * @return The canonical instance of a ResourceLocation equal to the given id
+	 */
+	public static ResourceLocation intern(final ResourceLocation id)
+	{
+		return RESOURCE_LOCATIONS.intern(id);
+	}
+
+	@Override
+	public DataResult<String> getStringValue(final T input)
+	{
+		return this.delegate.getStringValue(input).map(InterningOps::intern);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.MapCodec;
+
+/**
+ * <p>Decodes a subset of the fields of a json object directly from a reader, skipping over all other fields
+ * without parsing them into JsonElements. Useful for reading a few small fields (e.g. "replace" or a priority)
+ * of large json files to decide whether the rest of the file needs to be decoded.</p>
+ * 
+ * <pre>
+ * public static record Header(boolean replace) {}
+ * public static final MapCodec&lt;Header&gt; HEADER = Codec.BOOL.optionalFieldOf("replace", false).xmap(Header::new, Header::replace);
+ * public static final JsonProjection&lt;Header&gt; PROJECTION = JsonProjection.of(HEADER);
+ * 
+ * DataResult&lt;Header&gt; header = PROJECTION.read(reader);
+ * </pre>
+ * @param <A> The type of the decoded projection
+ */
+public class JsonProjection<A>
+{
+	private final MapCodec<A> codec;
+	private final Set<String> fields;
+	
+	/**
+	 * Creates a JsonProjection which reads the fields of a MapCodec's keys
+	 * @param <A> The type of the decoded projection
+	 * @param codec MapCodec to decode projected fields with. Its {@link MapCodec#keys} must include all fields it reads.
+	 * @return JsonProjection which reads only the codec's fields from json objects
+	 */
+	public static <A> JsonProjection<A> of(final MapCodec<A> codec)
+	{
+		final Set<String> fields = codec.keys(JsonOps.INSTANCE)
+			.map(JsonElement::getAsString)
+			.collect(Collectors.toUnmodifiableSet());
+		return new JsonProjection<>(codec, fields);
+	}
+	
+	/**
+	 * Creates a JsonProjection which reads a specified set of fields
+	 * @param <A> The type of the decoded projection
+	 * @param codec MapCodec to decode projected fields with
+	 * @param fields Names of the top-level fields to read; all other fields are skipped
+	 * @return JsonProjection which reads only the specified fields from json objects
+	 */
+	public static <A> JsonProjection<A> of(final MapCodec<A> codec, final Set<String> fields)
+	{
+		return new JsonProjection<>(codec, Set.copyOf(fields));
+	}
+	
+	protected JsonProjection(final MapCodec<A> codec, final Set<String> fields)
+	{
+		this.codec = codec;
+		this.fields = fields;
+	}
+	
+	/**
+	 * @return The names of the fields read by this projection
+	 */
+	public Set<String> fields()
+	{
+		return this.fields;
+	}
+	
+	/**
+	 * Reads a json object from a reader and decodes the projected fields via JsonOps
+	 * @param reader Reader to read a json object from. Not closed by this method.
+	 * @return DataResult containing the decoded projection, or an error if the json was malformed or could not be decoded
+	 */
+	public DataResult<A> read(final Reader reader)
+	{
+		return this.read(JsonOps.INSTANCE, reader);
+	}
+	
+	/**
+	 * Reads a json object from a reader and decodes the projected fields
+	 * @param ops DynamicOps to decode with, e.g. RegistryOps for codecs which require registry access
+	 * @param reader Reader to read a json object from. Not closed by this method.
+	 * @return DataResult containing the decoded projection, or an error if the json was malformed or could not be decoded
+	 */
+	public DataResult<A> read(final DynamicOps<JsonElement> ops, final Reader reader)
+	{
+		final JsonObject projected = new JsonObject();
+		try
+		{
+			final JsonReader jsonReader = new JsonReader(reader);
+			jsonReader.setStrictness(Strictness.LENIENT);
+			if (jsonReader.peek() != JsonToken.BEGIN_OBJECT)
+			{
+				return DataResult.error(() -> "Not a json object");
+			}
+			jsonReader.beginObject();
+			while (jsonReader.hasNext())
+			{
+				final String name = jsonReader.nextName();
+				if (this.fields.contains(name))
+				{
+					projected.add(name, JsonParser.parseReader(jsonReader));
+				}
+				else
+				{
+					jsonReader.skipValue();
+				}
+			}
+			jsonReader.endObject();
+		}
+		catch (IOException | JsonParseException | IllegalStateException e)
+		{
+			return DataResult.error(() -> "Failed to read json: " + e.getMessage());
+		}
+		return ops.getMap(projected).flatMap(map -> this.codec.decode(ops, map));
+	}
+}
@@ -0,0 +1,131 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.ListBuilder;
+import com.mojang.serialization.RecordBuilder;
+
+/**
+ * <p>Helper for {@link DynamicOps#convertTo} implementations, which converts maps and lists to another DynamicOps format
+ * by walking the input via the input ops' map and list iterators and emitting directly into the output ops'
+ * map and list builders. Unlike {@link DynamicOps#convertMap} and {@link DynamicOps#convertList},
+ * this doesn't create streams of pairs at each level of the input.</p>
+ * 
+ * <p>Children of maps and lists are converted via the input ops' {@link DynamicOps#convertTo}, so that the input ops
+ * decides how to convert each child without it being probed here. Only input ops whose convertTo uses {@link #transcodeMap}
+ * and {@link #transcodeList} have their whole tree converted via the builders; in databuddy, these are
+ * {@link net.commoble.databuddy.config.ConfigHelper.TomlConfigOps} and {@link BinaryOps} (whose primitive arrays
+ * are kept as arrays by their own convertTo). Other ops, such as JsonOps and NbtOps, convert their nested maps and lists
+ * with their own stream-based convertTo, so only the top level of e.g. json passed to {@link #transcode} uses the builders.</p>
+ */
+public final class OpsTranscoder
+{
+	private OpsTranscoder() {} // utility class
+	
+	/**
+	 * Converts data to another format.
+	 * This is a generic entry point for when the shape of the input isn't known: map inputs are converted via the builders,
+	 * and anything else is converted via the input ops' {@link DynamicOps#convertTo}.
+	 * @param <S> The input format
+	 * @param <U> The output format
+	 * @param inOps DynamicOps of the input format
+	 * @param outOps DynamicOps of the output format
+	 * @param input Data to convert
+	 * @return The converted data
+	 * @throws IllegalStateException if the output ops cannot represent the data, e.g. a map with non-string keys
+	 */
+	public static <S,U> U transcode(final DynamicOps<S> inOps, final DynamicOps<U> outOps, final S input)
+	{
+		if (input == inOps.empty())
+		{
+			return outOps.empty();
+		}
+		DataResult<Consumer<BiConsumer<S,S>>> mapResult = inOps.getMapEntries(input);
+		if (mapResult instanceof DataResult.Success<Consumer<BiConsumer<S,S>>> map)
+		{
+			return transcodeMapEntries(inOps, outOps, map.value());
+		}
+		// lists and primitives (including primitive arrays, which many ops also expose as lists) are left to the input ops
+		return inOps.convertTo(outOps, input);
+	}
+	
+	/**
+	 * Converts a map-like object to another format.
+	 * Can be used by {@link DynamicOps#convertTo} implementations once they know the input is a map.
+	 * @param <S> The input format
+	 * @param <U> The output format
+	 * @param inOps DynamicOps of the input format
+	 * @param outOps DynamicOps of the output format
+	 * @param input Map-like data to convert
+	 * @return The converted data, or the output ops' empty value if the input was not map-like
+	 * @throws IllegalStateException if the output ops cannot represent the data, e.g. a map with non-string keys
+	 */
+	public static <S,U> U transcodeMap(final DynamicOps<S> inOps, final DynamicOps<U> outOps, final S input)
+	{
+		return inOps.getMapEntries(input)
+			.mapOrElse(entries -> transcodeMapEntries(inOps, outOps, entries), error -> outOps.empty());
+	}
+	
+	/**
+	 * Converts a list-like object to another format.
+	 * Can be used by {@link DynamicOps#convertTo} implementations once they know the input is a list.
+	 * @param <S> The input format
+	 * @param <U> The output format
+	 * @param inOps DynamicOps of the input format
+	 * @param outOps DynamicOps of the output format
+	 * @param input List-like data to convert
+	 * @return The converted data, or the output ops' empty value if the input was not list-like
+	 * @throws IllegalStateException if the output ops cannot represent the data
+	 */
+	public static <S,U> U transcodeList(final DynamicOps<S> inOps, final DynamicOps<U> outOps, final S input)
+	{
+		return inOps.getList(input)
+			.mapOrElse(elements -> transcodeListElements(inOps, outOps, elements), error -> outOps.empty());
+	}
+	
+	private static <S,U> U transcodeMapEntries(final DynamicOps<S> inOps, final DynamicOps<U> outOps, final Consumer<BiConsumer<S,S>> entries)
+	{
+		// builders may return a new builder when added to, so we have to keep the latest one
+		@SuppressWarnings("unchecked")
+		final RecordBuilder<U>[] builder = new RecordBuilder[] {outOps.mapBuilder()};
+		entries.accept((key, value) -> builder[0] = builder[0].add(inOps.convertTo(outOps, key), inOps.convertTo(outOps, value)));
+		return builder[0].build(outOps.empty()).getPartialOrThrow();
+	}
+	
+	private static <S,U> U transcodeListElements(final DynamicOps<S> inOps, final DynamicOps<U> outOps, final Consumer<Consumer<S>> elements)
+	{
+		@SuppressWarnings("unchecked")
+		final ListBuilder<U>[] builder = new ListBuilder[] {outOps.listBuilder()};
+		elements.accept(element -> builder[0] = builder[0].add(inOps.convertTo(outOps, element)));
+		return builder[0].build(outOps.empty()).getPartialOrThrow();
+	}
+}
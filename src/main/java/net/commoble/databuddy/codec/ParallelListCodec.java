@@ -0,0 +1,208 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.Unit;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.Lifecycle;
+
+/**
+ * <p>List codec that decodes very large lists in parallel. Lists with at least twice as many elements as the chunk size
+ * are split into chunks which are decoded on a ForkJoinPool and reassembled in their original order;
+ * smaller lists are decoded on the calling thread. Encoding is the same as {@link Codec#listOf()}.</p>
+ * 
+ * <p>Results are the same as those of {@link Codec#listOf()}: elements which fail to decode are omitted from the partial result,
+ * the second value of the decoded pair is a list of the failed inputs, and error messages are combined in list order.</p>
+ * 
+ * <p>The element codec and the DynamicOps used for decoding must be safe to use from multiple threads at once;
+ * JsonOps, NbtOps, and RegistryOps are.</p>
+ * @param <E> Type of list elements
+ */
+public class ParallelListCodec<E> implements Codec<List<E>>
+{
+	/** Default number of elements per chunk **/
+	public static final int DEFAULT_CHUNK_SIZE = 1024;
+	
+	private final Codec<E> elementCodec;
+	private final Codec<List<E>> sequentialCodec;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+	
+	/**
+	 * @param <E> Type of list elements
+	 * @param elementCodec Codec for list elements
+	 * @return Codec that decodes large lists on the common ForkJoinPool in chunks of {@link #DEFAULT_CHUNK_SIZE} elements
+	 */
+	public static <E> ParallelListCodec<E> of(final Codec<E> elementCodec)
+	{
+		return new ParallelListCodec<>(elementCodec, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param <E> Type of list elements
+	 * @param elementCodec Codec for list elements
+	 * @param chunkSize Number of elements to decode per task, must be positive
+	 * @param pool ForkJoinPool to decode chunks on
+	 * @return Codec that decodes large lists on the given pool
+	 */
+	public static <E> ParallelListCodec<E> of(final Codec<E> elementCodec, final int chunkSize, final ForkJoinPool pool)
+	{
+		if (chunkSize <= 0)
+		{
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+		}
+		return new ParallelListCodec<>(elementCodec, chunkSize, pool);
+	}
+	
+	protected ParallelListCodec(final Codec<E> elementCodec, final int chunkSize, final ForkJoinPool pool)
+	{
+		this.elementCodec = elementCodec;
+		this.sequentialCodec = elementCodec.listOf();
+		this.chunkSize = chunkSize;
+		this.pool = pool;
+	}
+
+	@Override
+	public <T> DataResult<T> encode(final List<E> input, final DynamicOps<T> ops, final T prefix)
+	{
+		return this.sequentialCodec.encode(input, ops, prefix);
+	}
+
+	@Override
+	public <T> DataResult<Pair<List<E>, T>> decode(final DynamicOps<T> ops, final T input)
+	{
+		return ops.getList(input).setLifecycle(Lifecycle.stable()).flatMap(consumer ->
+		{
+			final List<T> values = new ArrayList<>();
+			consumer.accept(values::add);
+			final int size = values.size();
+			if (size < this.chunkSize * 2)
+			{
+				return decodeChunk(ops, values, 0, size).build(ops);
+			}
+			
+			final List<Callable<Chunk<E,T>>> tasks = new ArrayList<>(size / this.chunkSize + 1);
+			for (int start = 0; start < size; start += this.chunkSize)
+			{
+				final int from = start;
+				final int to = Math.min(size, start + this.chunkSize);
+				tasks.add(() -> decodeChunk(ops, values, from, to));
+			}
+			
+			final Chunk<E,T> combined = new Chunk<>(new ArrayList<>(size), new ArrayList<>());
+			for (Future<Chunk<E,T>> future : this.pool.invokeAll(tasks))
+			{
+				combined.append(join(future));
+			}
+			return combined.build(ops);
+		});
+	}
+	
+	private <T> Chunk<E,T> decodeChunk(final DynamicOps<T> ops, final List<T> values, final int from, final int to)
+	{
+		final Chunk<E,T> chunk = new Chunk<>(new ArrayList<>(to - from), new ArrayList<>());
+		for (int i=from; i<to; i++)
+		{
+			final T value = values.get(i);
+			final DataResult<Pair<E,T>> elementResult = this.elementCodec.decode(ops, value);
+			elementResult.error().ifPresent(error -> chunk.failed.add(value));
+			elementResult.resultOrPartial().ifPresent(pair -> chunk.elements.add(pair.getFirst()));
+			chunk.result = chunk.result.apply2stable((result, element) -> result, elementResult);
+		}
+		return chunk;
+	}
+	
+	private static <X> X join(final Future<X> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException runtimeException)
+			{
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error)
+			{
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while decoding list", e);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ParallelListCodec[" + this.elementCodec + "]";
+	}
+	
+	/**
+	 * Decoded elements, failed inputs, and combined result of a contiguous range of list elements
+	 */
+	private static class Chunk<E,T>
+	{
+		private final List<E> elements;
+		private final List<T> failed;
+		private DataResult<Unit> result = DataResult.success(Unit.INSTANCE, Lifecycle.stable());
+		
+		private Chunk(final List<E> elements, final List<T> failed)
+		{
+			this.elements = elements;
+			this.failed = failed;
+		}
+		
+		private void append(final Chunk<E,T> next)
+		{
+			this.elements.addAll(next.elements);
+			this.failed.addAll(next.failed);
+			this.result = this.result.apply2stable((result, ignored) -> result, next.result);
+		}
+		
+		private DataResult<Pair<List<E>,T>> build(final DynamicOps<T> ops)
+		{
+			final Pair<List<E>,T> pair = Pair.of(List.copyOf(this.elements), ops.createList(this.failed.stream()));
+			return this.result.map(ignored -> pair).setPartial(pair);
+		}
+	}
+}
@@ -24,18 +24,31 @@ SOFTWARE.
 
  */
 package net.commoble.databuddy.codec;
-
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
+import com.google.common.collect.MapMaker;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.MapCodec;
 
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
 import net.minecraft.core.Registry;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.VarInt;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModList;
+import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.neoforged.neoforge.registries.DeferredHolder;
 import net.neoforged.neoforge.registries.DeferredRegister;
 import net.neoforged.neoforge.registries.RegistryBuilder;
 
@@ -57,6 +70,9 @@ import net.neoforged.neoforge.registries.RegistryBuilder;
  */
 public record RegistryDispatcher<T>(Codec<MapCodec<? extends T>> dispatcherCodec, Codec<T> dispatchedCodec, DeferredRegister<MapCodec<? extends T>> defreg, Registry<MapCodec<? extends T>> codecRegistry)
 {
+	// stream codec state is kept out of the record so its canonical constructor doesn't change
+	private static final Map<Registry<?>, DispatchTable<?>> DISPATCH_TABLES = new MapMaker().weakKeys().makeMap();
+	
 	/**
 	 * Helper method for creating and registering a DeferredRegister for a registry of serializers.
 	 * @param <T> Data type -- the things that get parsed from jsons
@@ -75,33 +91,243 @@ public record RegistryDispatcher<T>(Codec<MapCodec<? extends T>> dispatcherCodec
 		IEventBus modBus = ModList.get().getModContainerById(modid).get().getEventBus();
 		DeferredRegister<MapCodec<? extends T>> deferredRegister = DeferredRegister.create(registryId, registryId.getNamespace());
 		Registry<MapCodec<? extends T>> registry = deferredRegister.makeRegistry(extraSettings);
-		Codec<MapCodec<? extends T>> dispatcherCodec = ResourceLocation.CODEC.<MapCodec<? extends T>>flatXmap(
-			id -> {
-				boolean hasKey = registry.containsKey(id);
-				if (hasKey)
+		DispatchTable<T> table = new DispatchTable<>(registryId, registry, typeLookup);
+		Codec<MapCodec<? extends T>> dispatcherCodec = ResourceLocation.CODEC.<MapCodec<? extends T>>flatXmap(table::decode, table::encode);
+		Codec<T> dispatchedCodec = dispatcherCodec.dispatch(typeLookup, Function.identity());
+		table.instrumentedCodec = InstrumentedOps.instrument(registryId.toString(), dispatcherCodec.dispatch(typeLookup, table::getInstrumentedCodec));
+		DISPATCH_TABLES.put(registry, table);
+		// serializers are registered before common setup, so the registry's contents won't change after this point
+		modBus.addListener(FMLCommonSetupEvent.class, event -> table.freeze());
+		deferredRegister.register(modBus);
+		
+		return new RegistryDispatcher<>(dispatcherCodec, dispatchedCodec, deferredRegister, registry);
+	}
+	
+	/**
+	 * Instrumented variant of {@link #dispatchedCodec}, for profiling via {@link InstrumentedOps}.
+	 * The dispatched codec is instrumented using the registry id as the name, and each serializer type
+	 * using "registryid/typeid" as the name. Instrumented codecs check the ops they're used with on every call,
+	 * so use {@link #dispatchedCodec} when not profiling.
+	 * @return Codec for the data type which records calls when used with an InstrumentedOps
+	 * @throws IllegalStateException if this dispatcher was not created by {@link #makeDispatchForgeRegistry}
+	 */
+	public Codec<T> instrumentedCodec()
+	{
+		return this.getDispatchTable().instrumentedCodec;
+	}
+	
+	/**
+	 * StreamCodec for the data type, for syncing data to clients.
+	 * Writes the serializer type as a varint registry id, so the serializer registry must be synced (see {@link RegistryBuilder#sync(boolean)}).
+	 * Types without a registered stream codec (see {@link #registerStreamCodec}) are written via their codec using {@link BinaryOps}.
+	 * @return StreamCodec for the data type
+	 * @throws IllegalStateException if this dispatcher was not created by {@link #makeDispatchForgeRegistry}
+	 */
+	public StreamCodec<RegistryFriendlyByteBuf, T> dispatchedStreamCodec()
+	{
+		return this.getDispatchTable().dispatchedStreamCodec;
+	}
+	
+	/**
+	 * Registers a StreamCodec to be used by {@link #dispatchedStreamCodec} for a serializer type.
+	 * Should be called during mod construction.
+	 * @param <U> The data type the serializer is for
+	 * @param type DeferredHolder of the registered serializer
+	 * @param streamCodec StreamCodec for the serializer's data type
+	 * @throws IllegalStateException if this dispatcher was not created by {@link #makeDispatchForgeRegistry},
+	 * or if called after common setup, when the dispatcher's stream codecs have been finalized
+	 */
+	public <U extends T> void registerStreamCodec(DeferredHolder<MapCodec<? extends T>, MapCodec<U>> type, StreamCodec<? super RegistryFriendlyByteBuf, U> streamCodec)
+	{
+		this.getDispatchTable().registerStreamCodec(type.getId(), streamCodec);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private DispatchTable<T> getDispatchTable()
+	{
+		@Nullable DispatchTable<?> table = DISPATCH_TABLES.get(this.codecRegistry);
+		if (table == null)
+		{
+			throw new IllegalStateException(String.format("Registry %s has no dispatch table; use RegistryDispatcher.makeDispatchForgeRegistry", this.codecRegistry.key().location()));
+		}
+		// tables are only ever put for the registry they were created with
+		return (DispatchTable<T>)table;
+	}
+	
+	/**
+	 * Lookup tables for the dispatcher codec and stream codec. Before the registry is frozen, lookups are done via the registry;
+	 * afterward, each lookup is a single map lookup returning a prebuilt result.
+	 */
+	private static class DispatchTable<T>
+	{
+		private final ResourceLocation registryId;
+		private final Registry<MapCodec<? extends T>> registry;
+		private final Map<ResourceLocation, StreamCodec<? super RegistryFriendlyByteBuf, ? extends T>> streamCodecs = new ConcurrentHashMap<>();
+		private final StreamCodec<RegistryFriendlyByteBuf, T> dispatchedStreamCodec;
+		/** set before the table is published to DISPATCH_TABLES **/
+		private Codec<T> instrumentedCodec;
+		private volatile @Nullable Map<ResourceLocation, DataResult<MapCodec<? extends T>>> codecsById = null;
+		private volatile @Nullable Map<MapCodec<? extends T>, DataResult<ResourceLocation>> idsByCodec = null;
+		/** only used by the instrumented codec **/
+		private volatile @Nullable Map<MapCodec<? extends T>, MapCodec<? extends T>> instrumentedCodecs = null;
+		private volatile @Nullable Map<MapCodec<? extends T>, StreamCodec<? super RegistryFriendlyByteBuf, T>> streamCodecsByType = null;
+		
+		private DispatchTable(ResourceLocation registryId, Registry<MapCodec<? extends T>> registry, Function<T,? extends MapCodec<? extends T>> typeLookup)
+		{
+			this.registryId = registryId;
+			this.registry = registry;
+			this.dispatchedStreamCodec = new StreamCodec<>()
+			{
+				@Override
+				public T decode(RegistryFriendlyByteBuf buf)
 				{
-					return registry.get(id)
-						.map(holder -> DataResult.success(holder.value()))
-						.orElseGet(() -> DataResult.error(() -> String.format("Registry %s does not contain %s", registryId, id)));
+					int id = VarInt.read(buf);
+					@Nullable MapCodec<? extends T> type = registry.byId(id);
+					if (type == null)
+					{
+						throw new DecoderException(String.format("Registry %s does not contain id %s", registryId, id));
+					}
+					return DispatchTable.this.getStreamCodec(type).decode(buf);
 				}
-				return DataResult.error(() -> String.format("Registry %s does not contain %s", registryId, id));
-			},
-			codec -> {
-				boolean hasValue = registry.containsValue(codec);
-				if (hasValue)
+
+				@Override
+				public void encode(RegistryFriendlyByteBuf buf, T value)
 				{
-					var key = registry.getKey(codec);
-					if (key != null)
+					if (!registry.doesSync())
+					{
+						throw new EncoderException(String.format("Registry %s must be synced to use its dispatched stream codec", registryId));
+					}
+					MapCodec<? extends T> type = typeLookup.apply(value);
+					int id = registry.getId(type);
+					if (id == -1)
 					{
-						return DataResult.success(key);
+						throw new EncoderException(String.format("Registry %s does not contain %s", registryId, type));
 					}
-					return DataResult.error(() -> String.format("Registry %s has null id for %s", registryId, codec));
+					VarInt.write(buf, id);
+					DispatchTable.this.getStreamCodec(type).encode(buf, value);
 				}
-				return DataResult.error(() -> String.format("Registry %s does not contain %s", registryId, codec));
-			});
-		Codec<T> dispatchedCodec = dispatcherCodec.dispatch(typeLookup, Function.identity());
-		deferredRegister.register(modBus);
+			};
+		}
 		
-		return new RegistryDispatcher<>(dispatcherCodec, dispatchedCodec, deferredRegister, registry);
+		private synchronized void freeze()
+		{
+			Map<ResourceLocation, DataResult<MapCodec<? extends T>>> codecsById = new HashMap<>();
+			Map<MapCodec<? extends T>, DataResult<ResourceLocation>> idsByCodec = new IdentityHashMap<>();
+			Map<MapCodec<? extends T>, MapCodec<? extends T>> instrumentedCodecs = new IdentityHashMap<>();
+			Map<MapCodec<? extends T>, StreamCodec<? super RegistryFriendlyByteBuf, T>> streamCodecsByType = new IdentityHashMap<>();
+			for (var entry : this.registry.entrySet())
+			{
+				ResourceLocation id = entry.getKey().location();
+				MapCodec<? extends T> codec = entry.getValue();
+				codecsById.put(id, DataResult.success(codec));
+				idsByCodec.put(codec, DataResult.success(id));
+				instrumentedCodecs.put(codec, this.makeInstrumentedCodec(codec));
+				streamCodecsByType.put(codec, this.makeStreamCodec(codec));
+			}
+			this.idsByCodec = idsByCodec;
+			this.codecsById = codecsById;
+			this.instrumentedCodecs = instrumentedCodecs;
+			this.streamCodecsByType = streamCodecsByType;
+		}
+		
+		private synchronized void registerStreamCodec(ResourceLocation id, StreamCodec<? super RegistryFriendlyByteBuf, ? extends T> streamCodec)
+		{
+			// after freezing, the BinaryOps fallback may already be in use for this type, and the two formats aren't compatible
+			if (this.streamCodecsByType != null)
+			{
+				throw new IllegalStateException(String.format("Cannot register stream codec for %s in registry %s after common setup", id, this.registryId));
+			}
+			this.streamCodecs.put(id, streamCodec);
+		}
+		
+		private DataResult<MapCodec<? extends T>> decode(ResourceLocation id)
+		{
+			@Nullable var codecsById = this.codecsById;
+			if (codecsById != null)
+			{
+				@Nullable var result = codecsById.get(id);
+				return result != null
+					? result
+					: DataResult.error(() -> String.format("Registry %s does not contain %s", this.registryId, id));
+			}
+			boolean hasKey = this.registry.containsKey(id);
+			if (hasKey)
+			{
+				return this.registry.get(id)
+					.map(holder -> DataResult.<MapCodec<? extends T>>success(holder.value()))
+					.orElseGet(() -> DataResult.error(() -> String.format("Registry %s does not contain %s", this.registryId, id)));
+			}
+			return DataResult.error(() -> String.format("Registry %s does not contain %s", this.registryId, id));
+		}
+		
+		private DataResult<ResourceLocation> encode(MapCodec<? extends T> codec)
+		{
+			@Nullable var idsByCodec = this.idsByCodec;
+			if (idsByCodec != null)
+			{
+				@Nullable var result = idsByCodec.get(codec);
+				return result != null
+					? result
+					: DataResult.error(() -> String.format("Registry %s does not contain %s", this.registryId, codec));
+			}
+			boolean hasValue = this.registry.containsValue(codec);
+			if (hasValue)
+			{
+				var key = this.registry.getKey(codec);
+				if (key != null)
+				{
+					return DataResult.success(key);
+				}
+				return DataResult.error(() -> String.format("Registry %s has null id for %s", this.registryId, codec));
+			}
+			return DataResult.error(() -> String.format("Registry %s does not contain %s", this.registryId, codec));
+		}
+		
+		private MapCodec<? extends T> getInstrumentedCodec(MapCodec<? extends T> type)
+		{
+			@Nullable var instrumentedCodecs = this.instrumentedCodecs;
+			if (instrumentedCodecs != null)
+			{
+				@Nullable var instrumentedCodec = instrumentedCodecs.get(type);
+				if (instrumentedCodec != null)
+				{
+					return instrumentedCodec;
+				}
+			}
+			// not frozen yet (or type not in registry); wrap without caching, this only happens before common setup
+			return this.makeInstrumentedCodec(type);
+		}
+		
+		private <U extends T> MapCodec<U> makeInstrumentedCodec(MapCodec<U> type)
+		{
+			@Nullable ResourceLocation id = this.registry.getKey(type);
+			return InstrumentedOps.instrument(this.registryId + "/" + id, type);
+		}
+		
+		private StreamCodec<? super RegistryFriendlyByteBuf, T> getStreamCodec(MapCodec<? extends T> type)
+		{
+			@Nullable var streamCodecsByType = this.streamCodecsByType;
+			if (streamCodecsByType != null)
+			{
+				@Nullable var streamCodec = streamCodecsByType.get(type);
+				if (streamCodec != null)
+				{
+					return streamCodec;
+				}
+			}
+			// not frozen yet (or type not in registry); resolve without caching so later registrations aren't shadowed
+			return this.makeStreamCodec(type);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private StreamCodec<? super RegistryFriendlyByteBuf, T> makeStreamCodec(MapCodec<? extends T> type)
+		{
+			@Nullable ResourceLocation id = this.registry.getKey(type);
+			@Nullable var streamCodec = id == null ? null : this.streamCodecs.get(id);
+			// the type's stream codec is only ever used with values whose type is that type
+			return streamCodec != null
+				? (StreamCodec<? super RegistryFriendlyByteBuf, T>)streamCodec
+				: (StreamCodec<? super RegistryFriendlyByteBuf, T>)BinaryOps.streamCodecWithRegistries(type.codec());
+		}
 	}
 }
@@ -27,27 +27,21 @@ SOFTWARE.
 package net.commoble.databuddy.codec;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
-import javax.annotation.Nullable;
-
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.google.common.collect.Sets;
 import com.google.gson.JsonElement;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.JsonOps;
-import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.RecordBuilder;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.data.DataProvider;
 import net.minecraft.resources.DelegatingOps;
 
@@ -70,7 +64,8 @@ public class WriteFieldsFirstOps<T> extends DelegatingOps<T>
 	
 	private static final Logger LOGGER = LogManager.getLogger();
 	private final String[] priorityFields;
-	private final Set<String> priorityFieldSet;
+	/** index of each priority field in priorityFields, or -1 for other fields **/
+	private final Object2IntMap<String> priorityFieldIndices;
 	
 	/**
 	 * 
@@ -95,7 +90,12 @@ public class WriteFieldsFirstOps<T> extends DelegatingOps<T>
 	{
 		super(delegate);
 		this.priorityFields = priorityFields;
-		this.priorityFieldSet = Sets.newHashSet(priorityFields);
+		this.priorityFieldIndices = new Object2IntOpenHashMap<>(priorityFields.length);
+		this.priorityFieldIndices.defaultReturnValue(-1);
+		for (int i=0; i<priorityFields.length; i++)
+		{
+			this.priorityFieldIndices.putIfAbsent(priorityFields[i], i);
+		}
 	}
 
 	@Override
@@ -104,96 +104,103 @@ public class WriteFieldsFirstOps<T> extends DelegatingOps<T>
 		// take the fields and reorder them such that
 		// 1) all fields named in priorityFields come first, in the same order as in priorityFields
 		// 2) all fields not in priorityFields come later, in the order given
-		final Map<String,Pair<T,T>> foundFields = new HashMap<>();
-		final List<Pair<T,T>> laterFields = new ArrayList<>();
+		final FieldSlots<T> slots = new FieldSlots<>(this.priorityFields.length);
 		fields.forEach(pair ->
 		{
 			this.delegate.getStringValue(pair.getFirst())
 				.resultOrPartial(errorString -> LOGGER.error("Expected value to be a field name but could not parse as a string: {}", errorString))
-				.ifPresent(fieldName ->
-				{
-					if (this.priorityFieldSet.contains(fieldName))
-					{
-						foundFields.put(fieldName, pair);
-					}
-					else
-					{
-						laterFields.add(pair);
-					}
-				});
+				.ifPresent(fieldName -> slots.add(this.priorityFieldIndices.getInt(fieldName), pair.getFirst(), pair.getSecond()));
 		});
-		final Stream.Builder<Pair<T,T>> output = Stream.builder();
-		for (String fieldName : this.priorityFields)
-		{
-			@Nullable var pair = foundFields.get(fieldName);
-			if (pair != null)
-			{
-				output.accept(pair);
-			}
-		}
-		laterFields.forEach(output::accept);
-		
-		return super.createMap(output.build());
+		return this.delegate.createMap(slots.stream());
 	}
 
 	@Override
 	public RecordBuilder<T> mapBuilder()
 	{
-		return new SortingMapBuilder<>(super.mapBuilder(), this);
+		return new SortingMapBuilder<>(this);
 	}
 	
-	
-	private static record SortingMapBuilder<T>(RecordBuilder<T> delegate, WriteFieldsFirstOps<T> writeOps) implements RecordBuilder<T>
+	/**
+	 * Fields of a map being built; priority fields are kept in slots by priority index,
+	 * other fields are kept in the order they were added
+	 */
+	private static class FieldSlots<T>
 	{
-		@Override
-		public DynamicOps<T> ops()
-		{
-			return delegate.ops();
-		}
-
-		@Override
-		public RecordBuilder<T> add(T key, T value)
+		private final Object[] priorityKeys;
+		private final Object[] priorityValues;
+		private final List<Pair<T,T>> laterFields = new ArrayList<>();
+		
+		private FieldSlots(int priorityFieldCount)
 		{
-			// we need to keep recreating our builder or we lose it
-			return new SortingMapBuilder<>(delegate.add(key, value), writeOps);
+			this.priorityKeys = new Object[priorityFieldCount];
+			this.priorityValues = new Object[priorityFieldCount];
 		}
-
-		@Override
-		public RecordBuilder<T> add(T key, DataResult<T> value)
+		
+		private void add(int priorityIndex, T key, T value)
 		{
-			return new SortingMapBuilder<>(delegate.add(key, value), writeOps);
+			if (priorityIndex >= 0)
+			{
+				this.priorityKeys[priorityIndex] = key;
+				this.priorityValues[priorityIndex] = value;
+			}
+			else
+			{
+				this.laterFields.add(Pair.of(key, value));
+			}
 		}
-
-		@Override
-		public RecordBuilder<T> add(DataResult<T> key, DataResult<T> value)
+		
+		@SuppressWarnings("unchecked")
+		private Stream<Pair<T,T>> stream()
 		{
-			return new SortingMapBuilder<>(delegate.add(key, value), writeOps);
+			final Stream.Builder<Pair<T,T>> output = Stream.builder();
+			for (int i=0; i<this.priorityKeys.length; i++)
+			{
+				if (this.priorityKeys[i] != null)
+				{
+					output.accept(Pair.of((T)this.priorityKeys[i], (T)this.priorityValues[i]));
+				}
+			}
+			this.laterFields.forEach(output);
+			return output.build();
 		}
-
-		@Override
-		public RecordBuilder<T> withErrorsFrom(DataResult<?> result)
+	}
+	
+	/**
+	 * RecordBuilder that places fields into their final order as they are added, and creates the map once when built
+	 */
+	private static class SortingMapBuilder<T> extends RecordBuilder.AbstractStringBuilder<T, FieldSlots<T>>
+	{
+		private final WriteFieldsFirstOps<T> writeOps;
+		
+		private SortingMapBuilder(WriteFieldsFirstOps<T> writeOps)
 		{
-			return new SortingMapBuilder<>(delegate.withErrorsFrom(result), writeOps);
+			super(writeOps);
+			this.writeOps = writeOps;
 		}
 
 		@Override
-		public RecordBuilder<T> setLifecycle(Lifecycle lifecycle)
+		protected FieldSlots<T> initBuilder()
 		{
-			return new SortingMapBuilder<>(delegate.setLifecycle(lifecycle), writeOps);
+			return new FieldSlots<>(this.writeOps.priorityFields.length);
 		}
 
 		@Override
-		public RecordBuilder<T> mapError(UnaryOperator<String> onError)
+		protected FieldSlots<T> append(String key, T value, FieldSlots<T> builder)
 		{
-			return new SortingMapBuilder<>(delegate.mapError(onError), writeOps);
+			builder.add(this.writeOps.priorityFieldIndices.getInt(key), this.writeOps.delegate.createString(key), value);
+			return builder;
 		}
 
 		@Override
-		public DataResult<T> build(T prefix)
+		protected DataResult<T> build(FieldSlots<T> builder, T prefix)
 		{
-			return delegate.build(prefix)
-				.flatMap(writeOps::getMap)
-				.map(maplike -> writeOps.createMap(maplike.entries()));
+			if (prefix == this.writeOps.empty())
+			{
+				return DataResult.success(this.writeOps.delegate.createMap(builder.stream()));
+			}
+			// rare case of merging into an existing map, that map's fields need sorting too
+			return this.writeOps.delegate.getMap(prefix)
+				.map(maplike -> this.writeOps.createMap(Stream.concat(maplike.entries(), builder.stream())));
 		}
 	}
 }
@@ -23,14 +23,38 @@ SOFTWARE.
 
 package net.commoble.databuddy.config;
 
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -42,15 +66,39 @@ import org.apache.logging.log4j.Logger;
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.NullObject;
 import com.electronwill.nightconfig.toml.TomlFormat;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.MapMaker;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.longs.Long2DoubleMap;
+import it.unimi.dsi.fastutil.longs.Long2DoubleMaps;
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongLists;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.commoble.databuddy.codec.OpsTranscoder;
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModList;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.neoforge.common.ModConfigSpec;
 import net.neoforged.neoforge.common.ModConfigSpec.ConfigValue;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.GameShuttingDownEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 
 
 /**
@@ -62,6 +110,39 @@ public class ConfigHelper
 	
 	static final Logger LOGGER = LogManager.getLogger();
 	
+	private static final Codec<IntList> INT_LIST_CODEC = Codec.INT_STREAM.xmap(
+		stream -> IntLists.unmodifiable(IntArrayList.wrap(stream.toArray())),
+		IntList::intStream);
+	private static final Codec<LongList> LONG_LIST_CODEC = Codec.LONG_STREAM.xmap(
+		stream -> LongLists.unmodifiable(LongArrayList.wrap(stream.toArray())),
+		LongList::longStream);
+	/** toml keys are strings, so longs are written as strings when used as keys **/
+	private static final Codec<Long> LONG_KEY_CODEC = Codec.STRING.comapFlatMap(s -> {
+		try
+		{
+			return DataResult.success(Long.parseLong(s));
+		}
+		catch (NumberFormatException e)
+		{
+			return DataResult.error(() -> "Not a long: " + s);
+		}
+	}, String::valueOf);
+	private static final Codec<Long2DoubleMap> LONG_TO_DOUBLE_MAP_CODEC = Codec.unboundedMap(LONG_KEY_CODEC, Codec.DOUBLE).xmap(
+		map -> Long2DoubleMaps.unmodifiable(new Long2DoubleOpenHashMap(map)),
+		map -> map);
+	private static final Codec<Object2IntMap<ResourceLocation>> ID_TO_INT_MAP_CODEC = Codec.unboundedMap(ResourceLocation.CODEC, Codec.INT).xmap(
+		map -> Object2IntMaps.unmodifiable(new Object2IntOpenHashMap<>(map)),
+		map -> map);
+	
+	/** Objects defined via defineObject on builders which haven't been registered yet **/
+	private static final Map<ModConfigSpec.Builder, List<Reloadable>> PENDING = Collections.synchronizedMap(new WeakHashMap<>());
+	/** Default values of objects defined via defineDeferredObject on builders which haven't been registered yet **/
+	private static final Map<ModConfigSpec.Builder, List<Supplier<Object>>> PENDING_DEFAULTS = Collections.synchronizedMap(new WeakHashMap<>());
+	/** Configs created via register, to their reload state **/
+	private static final Map<Object, ConfigState> CONFIG_STATES = new MapMaker().weakKeys().makeMap();
+	/** builders to the config file shared by the ConfigObjects defined on them **/
+	private static final Map<ModConfigSpec.Builder, ConfigFile> CONFIG_FILES = Collections.synchronizedMap(new WeakHashMap<>());
+	
 	/**
 	 * Register a config using a default config filename for your mod.
 	 * @param <T> The class of your config implementation
@@ -104,10 +185,32 @@ public class ConfigHelper
 		final @Nullable String configName)
 	{
 		final var mod = ModList.get().getModContainerById(modid).get();
-		final org.apache.commons.lang3.tuple.Pair<T, ModConfigSpec> entry = new ModConfigSpec.Builder()
-			.configure(configFactory);
+		final ModConfigSpec.Builder builder = new ModConfigSpec.Builder();
+		final org.apache.commons.lang3.tuple.Pair<T, ModConfigSpec> entry = builder.configure(configFactory);
 		final T config = entry.getLeft();
 		final ModConfigSpec spec = entry.getRight();
+		
+		// encode deferred default values in parallel, and fail before the config is registered if any can't be encoded
+		final List<Supplier<Object>> defaults = PENDING_DEFAULTS.remove(builder);
+		if (defaults != null)
+		{
+			try
+			{
+				CompletableFuture.allOf(defaults.stream()
+					.map(encodedDefault -> CompletableFuture.runAsync(encodedDefault::get, Util.backgroundExecutor()))
+					.toArray(CompletableFuture[]::new))
+					.join();
+			}
+			catch (CompletionException e)
+			{
+				if (e.getCause() instanceof RuntimeException cause)
+				{
+					throw cause;
+				}
+				throw e;
+			}
+		}
+		
 		if (configName == null)
 		{
 			mod.registerConfig(configType,spec);
@@ -116,88 +219,970 @@ public class ConfigHelper
 		{
 			mod.registerConfig(configType, spec, configName + ".toml");
 		}
-		
-		return config;
+		
+		// objects defined on the builder are reparsed when the config loads or reloads
+		final List<Reloadable> reloadables = PENDING.remove(builder);
+		if (reloadables != null)
+		{
+			final ConfigState state = new ConfigState(spec, reloadables);
+			CONFIG_STATES.put(config, state);
+			final IEventBus modBus = mod.getEventBus();
+			modBus.addListener(ModConfigEvent.Loading.class, state::onConfigEvent);
+			modBus.addListener(ModConfigEvent.Reloading.class, state::onConfigEvent);
+		}
+		
+		return config;
+	}
+	
+	/**
+	 * Gets the current snapshot of a config's ConfigObject values. All values in a snapshot were parsed from the same load of the config,
+	 * so threads which need several consistent values (e.g. async workers) should read them from one snapshot.
+	 * @param config A config instance returned by {@link #register}
+	 * @return The most recent snapshot of the config's ConfigObject values
+	 * @throws IllegalArgumentException if the config was not created via register or defines no ConfigObjects
+	 */
+	public static ConfigSnapshot getSnapshot(Object config)
+	{
+		final @Nullable ConfigState state = CONFIG_STATES.get(config);
+		if (state == null)
+		{
+			throw new IllegalArgumentException("Config was not created via ConfigHelper#register or has no config objects: " + config);
+		}
+		return state.snapshot;
+	}
+	
+	/**
+	 * Adds a listener to a config, which is notified after the config reloads or a ConfigObject is set
+	 * if any of the config's ConfigObject values changed.
+	 * @param config A config instance returned by {@link #register}
+	 * @param listener Listener to notify of changes
+	 * @throws IllegalArgumentException if the config was not created via register or defines no ConfigObjects
+	 */
+	public static void addListener(Object config, ConfigListener listener)
+	{
+		final @Nullable ConfigState state = CONFIG_STATES.get(config);
+		if (state == null)
+		{
+			throw new IllegalArgumentException("Config was not created via ConfigHelper#register or has no config objects: " + config);
+		}
+		state.listeners.add(listener);
+	}
+	
+	/**
+	 * Define a config value for a complex object.
+	 * @param <T> The type of the thing in the config we are making a listener for
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config that will hold objects of this type
+	 * @param codec A Codec for de/serializing your object type.
+	 * @param defaultObject The default instance of your config field. The given codec must be able to serialize this;
+	 * if it cannot, an exception will be intentionally thrown the first time the config attempts to load.
+	 * If the codec fails to deserialize the config field at a later time, an error message will be logged and this default instance will be used instead.  
+	 * @return A reload-sensitive wrapper around your config object value. Use ConfigObject#get to get the most up-to-date object.
+	 * If the builder is used to register a config via {@link #register}, the object is reparsed when the config loads or reloads;
+	 * otherwise, the object is reparsed when get is called after the config value has changed.
+	 */
+	public static <T> ConfigObject<T> defineObject(ModConfigSpec.Builder builder, String name, Codec<T> codec, T defaultObject)
+	{
+		DataResult<Object> encodeResult = codec.encodeStart(TomlConfigOps.INSTANCE, defaultObject);
+		Object encodedObject = encodeResult.getOrThrow(s -> new IllegalArgumentException(String.format("Unable to encode default value %s: %s", defaultObject, s)));
+		ConfigValue<Object> value = builder.define(name, encodedObject);
+		ConfigObject<T> configObject = new ConfigObject<>(value, getConfigFile(builder), codec, defaultObject, encodedObject);
+		PENDING.computeIfAbsent(builder, b -> new ArrayList<>()).add(configObject);
+		return configObject;
+	}
+	
+	/**
+	 * Define a config value for a complex object, deferring the encoding of the default object until it is needed.
+	 * If the builder is used to register a config via {@link #register}, default objects are encoded in parallel when the config is registered;
+	 * otherwise, the default object is encoded the first time the config needs it.
+	 * @param <T> The type of the thing in the config we are making a listener for
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config that will hold objects of this type
+	 * @param codec A Codec for de/serializing your object type.
+	 * @param defaultObject The default instance of your config field. The given codec must be able to serialize this;
+	 * if it cannot, an exception will be thrown when the config is registered or first loaded.
+	 * If the codec fails to deserialize the config field at a later time, an error message will be logged and this default instance will be used instead.  
+	 * @return A reload-sensitive wrapper around your config object value. Use ConfigObject#get to get the most up-to-date object.
+	 */
+	public static <T> ConfigObject<T> defineDeferredObject(ModConfigSpec.Builder builder, String name, Codec<T> codec, T defaultObject)
+	{
+		Supplier<Object> encodedDefault = Suppliers.memoize(() -> codec.encodeStart(TomlConfigOps.INSTANCE, defaultObject)
+			.getOrThrow(s -> new IllegalArgumentException(String.format("Unable to encode default value %s: %s", defaultObject, s))));
+		// same validation as ModConfigSpec.Builder#define(String, Object)
+		ConfigValue<Object> value = builder.define(name, encodedDefault,
+			o -> o != null && encodedDefault.get().getClass().isAssignableFrom(o.getClass()));
+		ConfigObject<T> configObject = new ConfigObject<>(value, getConfigFile(builder), codec, defaultObject, null);
+		PENDING.computeIfAbsent(builder, b -> new ArrayList<>()).add(configObject);
+		PENDING_DEFAULTS.computeIfAbsent(builder, b -> new ArrayList<>()).add(encodedDefault);
+		return configObject;
+	}
+	
+	/**
+	 * Define a config value for a list of ints. The list is decoded into an unmodifiable primitive list when the config loads.
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config
+	 * @param defaultList The default list
+	 * @return A reload-sensitive wrapper around the list
+	 */
+	public static ConfigObject<IntList> defineIntList(ModConfigSpec.Builder builder, String name, IntList defaultList)
+	{
+		return defineObject(builder, name, INT_LIST_CODEC, IntLists.unmodifiable(new IntArrayList(defaultList)));
+	}
+	
+	/**
+	 * Define a config value for a list of longs. The list is decoded into an unmodifiable primitive list when the config loads.
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config
+	 * @param defaultList The default list
+	 * @return A reload-sensitive wrapper around the list
+	 */
+	public static ConfigObject<LongList> defineLongList(ModConfigSpec.Builder builder, String name, LongList defaultList)
+	{
+		return defineObject(builder, name, LONG_LIST_CODEC, LongLists.unmodifiable(new LongArrayList(defaultList)));
+	}
+	
+	/**
+	 * Define a config value for a map of longs to doubles. The map is decoded into an unmodifiable open hash map when the config loads.
+	 * Keys are written to the config as strings.
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config
+	 * @param defaultMap The default map
+	 * @return A reload-sensitive wrapper around the map
+	 */
+	public static ConfigObject<Long2DoubleMap> defineLongToDoubleMap(ModConfigSpec.Builder builder, String name, Long2DoubleMap defaultMap)
+	{
+		return defineObject(builder, name, LONG_TO_DOUBLE_MAP_CODEC, Long2DoubleMaps.unmodifiable(new Long2DoubleOpenHashMap(defaultMap)));
+	}
+	
+	/**
+	 * Define a config value for a map of ResourceLocations to ints. The map is decoded into an unmodifiable open hash map when the config loads.
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config
+	 * @param defaultMap The default map
+	 * @return A reload-sensitive wrapper around the map
+	 */
+	public static ConfigObject<Object2IntMap<ResourceLocation>> defineIdToIntMap(ModConfigSpec.Builder builder, String name, Object2IntMap<ResourceLocation> defaultMap)
+	{
+		return defineObject(builder, name, ID_TO_INT_MAP_CODEC, Object2IntMaps.unmodifiable(new Object2IntOpenHashMap<>(defaultMap)));
+	}
+	
+	/**
+	 * Define a config value for a map whose values are decoded individually when they are first accessed.
+	 * When the config reloads, decoded values are kept for keys whose section of the config didn't change.
+	 * @param <K> The type of the map's keys
+	 * @param <V> The type of the map's values
+	 * @param builder Builder to build configs with
+	 * @param name The name of the field in your config
+	 * @param keyCodec A Codec for the map's keys, which must serialize keys as strings (e.g. ResourceLocation.CODEC)
+	 * @param valueCodec A Codec for the map's values
+	 * @param defaultMap The default map. The codecs must be able to serialize this; if they cannot, an exception will be thrown.
+	 * If a value fails to decode at a later time, an error message will be logged and the default map's value for that key
+	 * (or null if there is none) will be used instead.
+	 * @return A reload-sensitive wrapper around the map
+	 */
+	public static <K,V> KeyedConfigObject<K,V> defineKeyedObject(ModConfigSpec.Builder builder, String name, Codec<K> keyCodec, Codec<V> valueCodec, Map<K,V> defaultMap)
+	{
+		DataResult<Object> encodeResult = Codec.unboundedMap(keyCodec, valueCodec).encodeStart(TomlConfigOps.INSTANCE, defaultMap);
+		Object encodedObject = encodeResult.getOrThrow(s -> new IllegalArgumentException(String.format("Unable to encode default value %s: %s", defaultMap, s)));
+		ConfigValue<Object> value = builder.define(name, encodedObject);
+		KeyedConfigObject<K,V> configObject = new KeyedConfigObject<>(value, keyCodec, valueCodec, Map.copyOf(defaultMap), encodedObject);
+		PENDING.computeIfAbsent(builder, b -> new ArrayList<>()).add(configObject);
+		return configObject;
+	}
+	
+	/**
+	 * Something defined in a config which needs to be updated when the config loads or reloads
+	 */
+	private static interface Reloadable
+	{
+		/**
+		 * Called when the config this was defined in loads or reloads
+		 * @return The change to this object's value, or null if it didn't change
+		 */
+		@Nullable
+		Change reload();
+	}
+	
+	/**
+	 * A change to the value of something in a config
+	 * @param paths Paths of the changed values, relative to the root of the config
+	 * @param notifier Notifies the changed object's listeners of the change
+	 */
+	private static record Change(Set<String> paths, Runnable notifier) {}
+	
+	/**
+	 * Listener for changes to a ConfigObject's value
+	 * @param <T> The type of the ConfigObject's value
+	 */
+	@FunctionalInterface
+	public static interface ChangeListener<T>
+	{
+		/**
+		 * Called when a ConfigObject's parsed value changes
+		 * @param oldValue The previous parsed value
+		 * @param newValue The new parsed value
+		 * @param changedPaths Paths of the changed toml values, relative to the root of the config, e.g. "general.testObject.pos"
+		 */
+		void onChange(T oldValue, T newValue, Set<String> changedPaths);
+	}
+	
+	/**
+	 * Listener for changes to a config registered via {@link ConfigHelper#register}
+	 */
+	@FunctionalInterface
+	public static interface ConfigListener
+	{
+		/**
+		 * Called when any ConfigObject values in a config change
+		 * @param oldSnapshot Snapshot of the config's ConfigObject values before the change
+		 * @param newSnapshot Snapshot of the config's ConfigObject values after the change
+		 * @param changedPaths Paths of the changed toml values, relative to the root of the config, e.g. "general.testObject.pos"
+		 */
+		void onChange(ConfigSnapshot oldSnapshot, ConfigSnapshot newSnapshot, Set<String> changedPaths);
+	}
+	
+	/**
+	 * Finds the paths of the values which differ between two raw config values
+	 * @param path Path of the raw values
+	 * @param oldRaw Previous raw value
+	 * @param newRaw New raw value
+	 * @return Paths of changed values; tables are compared per key, other values are compared as a whole
+	 */
+	private static Set<String> diffPaths(String path, @Nullable Object oldRaw, @Nullable Object newRaw)
+	{
+		final Set<String> paths = new LinkedHashSet<>();
+		diffPaths(path, oldRaw, newRaw, paths);
+		return Collections.unmodifiableSet(paths);
+	}
+	
+	private static void diffPaths(String path, @Nullable Object oldRaw, @Nullable Object newRaw, Set<String> output)
+	{
+		if (oldRaw instanceof Config oldConfig && newRaw instanceof Config newConfig)
+		{
+			final Map<String, Object> oldValues = oldConfig.valueMap();
+			final Map<String, Object> newValues = newConfig.valueMap();
+			for (Map.Entry<String, Object> entry : oldValues.entrySet())
+			{
+				diffPaths(path + "." + entry.getKey(), entry.getValue(), newValues.get(entry.getKey()), output);
+			}
+			for (String key : newValues.keySet())
+			{
+				if (!oldValues.containsKey(key))
+				{
+					output.add(path + "." + key);
+				}
+			}
+		}
+		else if (!Objects.equals(oldRaw, newRaw))
+		{
+			output.add(path);
+		}
+	}
+	
+	private static ConfigFile getConfigFile(ModConfigSpec.Builder builder)
+	{
+		return CONFIG_FILES.computeIfAbsent(builder, b -> new ConfigFile());
+	}
+	
+	/**
+	 * The file shared by the ConfigObjects defined on a builder. Saving any of its values saves the whole file,
+	 * so sets and saves of its values synchronize on this to avoid writing the file while another value is being set.
+	 */
+	private static final class ConfigFile
+	{
+	}
+	
+	/**
+	 * Reload state of a config registered via {@link #register}
+	 */
+	private static class ConfigState
+	{
+		private final ModConfigSpec spec;
+		private final List<Reloadable> reloadables;
+		private volatile ConfigSnapshot snapshot;
+		private final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+		
+		private ConfigState(ModConfigSpec spec, List<Reloadable> reloadables)
+		{
+			this.spec = spec;
+			this.reloadables = reloadables;
+			for (Reloadable reloadable : reloadables)
+			{
+				if (reloadable instanceof ConfigObject<?> configObject)
+				{
+					configObject.state = this;
+				}
+			}
+			this.snapshot = this.createSnapshot();
+		}
+		
+		private void onConfigEvent(ModConfigEvent event)
+		{
+			if (event.getConfig().getSpec() == this.spec)
+			{
+				this.reload();
+			}
+		}
+		
+		private void reload()
+		{
+			final List<Change> changes = new ArrayList<>();
+			final ConfigSnapshot oldSnapshot;
+			final ConfigSnapshot newSnapshot;
+			synchronized(this)
+			{
+				for (Reloadable reloadable : this.reloadables)
+				{
+					final @Nullable Change change = reloadable.reload();
+					if (change != null)
+					{
+						changes.add(change);
+					}
+				}
+				oldSnapshot = this.snapshot;
+				newSnapshot = this.createSnapshot();
+				this.snapshot = newSnapshot;
+			}
+			this.notifyListeners(oldSnapshot, newSnapshot, changes);
+		}
+		
+		/**
+		 * Publishes a new snapshot after a ConfigObject was set
+		 * @param change The change to the ConfigObject, or null if its value didn't change
+		 */
+		private void onSet(@Nullable Change change)
+		{
+			final ConfigSnapshot oldSnapshot;
+			final ConfigSnapshot newSnapshot;
+			synchronized(this)
+			{
+				oldSnapshot = this.snapshot;
+				newSnapshot = this.createSnapshot();
+				this.snapshot = newSnapshot;
+			}
+			if (change != null)
+			{
+				this.notifyListeners(oldSnapshot, newSnapshot, List.of(change));
+			}
+		}
+		
+		private void notifyListeners(ConfigSnapshot oldSnapshot, ConfigSnapshot newSnapshot, List<Change> changes)
+		{
+			if (changes.isEmpty())
+			{
+				return;
+			}
+			final Set<String> paths = new LinkedHashSet<>();
+			for (Change change : changes)
+			{
+				change.notifier().run();
+				paths.addAll(change.paths());
+			}
+			final Set<String> changedPaths = Collections.unmodifiableSet(paths);
+			for (ConfigListener listener : this.listeners)
+			{
+				try
+				{
+					listener.onChange(oldSnapshot, newSnapshot, changedPaths);
+				}
+				catch (Exception e)
+				{
+					LOGGER.error("Config failure: Exception in config listener", e);
+				}
+			}
+		}
+		
+		private ConfigSnapshot createSnapshot()
+		{
+			final Map<ConfigObject<?>, Object> values = new IdentityHashMap<>();
+			for (Reloadable reloadable : this.reloadables)
+			{
+				if (reloadable instanceof ConfigObject<?> configObject)
+				{
+					values.put(configObject, configObject.parsedObject);
+				}
+			}
+			return new ConfigSnapshot(values);
+		}
+	}
+	
+	/**
+	 * Immutable set of parsed values of the ConfigObjects in a config, all from the same load of the config.
+	 * Use {@link ConfigHelper#getSnapshot} or {@link ConfigObject#snapshot} to get the current snapshot of a config.
+	 */
+	public static final class ConfigSnapshot
+	{
+		private final Map<ConfigObject<?>, Object> values;
+		
+		private ConfigSnapshot(Map<ConfigObject<?>, Object> values)
+		{
+			this.values = values;
+		}
+		
+		/**
+		 * @param <T> The type of the object
+		 * @param configObject A ConfigObject of the config this snapshot was taken from
+		 * @return The parsed value of the ConfigObject when the snapshot was taken
+		 * @throws IllegalArgumentException if the ConfigObject is not from this snapshot's config
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T get(ConfigObject<T> configObject)
+		{
+			final Object value = this.values.get(configObject);
+			if (value == null)
+			{
+				throw new IllegalArgumentException("ConfigObject is not part of this snapshot's config");
+			}
+			return (T)value;
+		}
+	}
+	
+	/**
+	 * A config-reload-sensitive wrapper around a config field for a complex object
+	 **/
+	public static class ConfigObject<T> implements Supplier<T>, Reloadable
+	{
+		private @Nonnull final ConfigValue<Object> value;
+		/** config file the value is saved to; set and save lock this before this object **/
+		private @Nonnull final ConfigFile file;
+		private @Nonnull final Codec<T> codec;
+		/** null until first read if the encoded default was deferred **/
+		private @Nullable volatile Object cachedObject;
+		private @Nonnull volatile T parsedObject;
+		private @Nonnull T defaultObject;
+		/** true once the config this was defined in has loaded and will notify this object of reloads **/
+		private volatile boolean bound = false;
+		/** reload state of the config this was defined in, if registered via ConfigHelper#register **/
+		private volatile @Nullable ConfigState state = null;
+		/** if non-null, set() saves the config in the background after this interval **/
+		private volatile @Nullable Duration writeBehindInterval = null;
+		private final List<ChangeListener<? super T>> listeners = new CopyOnWriteArrayList<>();
+		
+		private ConfigObject(ConfigValue<Object> value, ConfigFile file, Codec<T> codec, T defaultObject, @Nullable Object encodedDefaultObject)
+		{
+			this.value = value;
+			this.file = file;
+			this.codec = codec;
+			this.defaultObject = defaultObject;
+			this.parsedObject = defaultObject;
+			this.cachedObject = encodedDefaultObject;
+		}
+
+		@Override
+		@Nonnull
+		public T get()
+		{
+			if (this.bound)
+			{
+				return this.parsedObject;
+			}
+			Object freshObject = this.value.get();
+			if (!Objects.equals(this.cachedObject, freshObject))
+			{
+				synchronized(this)
+				{
+					// check again in case another thread reparsed while we were waiting
+					if (!Objects.equals(this.cachedObject, freshObject))
+					{
+						this.cachedObject = freshObject;
+						this.parsedObject = this.getReparsedObject(freshObject);
+					}
+				}
+			}
+			return this.parsedObject;
+		}
+		
+		/**
+		 * @return The current snapshot of the config this object was defined in
+		 * @throws IllegalStateException if the config was not registered via {@link ConfigHelper#register}
+		 */
+		public ConfigSnapshot snapshot()
+		{
+			final @Nullable ConfigState state = this.state;
+			if (state == null)
+			{
+				throw new IllegalStateException("Config snapshots are only available for configs registered via ConfigHelper#register");
+			}
+			return state.snapshot;
+		}
+		
+		/**
+		 * Sets the config field to a new value and saves the config.
+		 * If {@link #writeBehind} has been enabled, the config is saved later on a background thread instead.
+		 * @param value Value to serialize to the config. If object cannot be serialized, an error will be logged and no change will occur.
+		 */
+		public void set(T value)
+		{
+			this.codec.encodeStart(TomlConfigOps.INSTANCE, value)
+				.resultOrPartial(e -> LOGGER.error("Config failure: Could not save value {} due to encoding error: {}", value, e))
+				.ifPresent(serializedObject -> {
+					final @Nullable Duration interval = this.writeBehindInterval;
+					final @Nullable Object oldRaw;
+					final T oldValue;
+					synchronized(this.file)
+					{
+						synchronized(this)
+						{
+							oldRaw = this.cachedObject;
+							oldValue = this.parsedObject;
+							this.value.set(serializedObject);
+							if (interval == null)
+							{
+								this.value.save();
+							}
+							this.parsedObject = value;
+							this.cachedObject = serializedObject;
+						}
+					}
+					final @Nullable Change change = Objects.equals(oldValue, value)
+						? null
+						: this.createChange(oldRaw, serializedObject, oldValue, value);
+					final @Nullable ConfigState state = this.state;
+					if (state != null)
+					{
+						state.onSet(change);
+					}
+					else if (change != null)
+					{
+						change.notifier().run();
+					}
+					if (interval != null)
+					{
+						WriteBehindSaver.schedule(this.file, this.value, interval);
+					}
+				});
+		}
+		
+		/**
+		 * Enables write-behind saving. When write-behind saving is enabled, {@link #set} updates the config value immediately,
+		 * and the config file is saved on a background thread once the given interval has passed;
+		 * further sets of any write-behind ConfigObject in the same config during that interval are saved together. Pending saves are also written when the server stops
+		 * and when the game shuts down.
+		 * @param interval How long to wait after a set before saving the config file
+		 * @return this
+		 */
+		public ConfigObject<T> writeBehind(Duration interval)
+		{
+			this.writeBehindInterval = Objects.requireNonNull(interval);
+			return this;
+		}
+		
+		/**
+		 * Creates a view of this object's value which is only recomputed when this object's parsed value changes,
+		 * e.g. for building a Set from a list in the config
+		 * @param <R> Type of the derived value
+		 * @param function Function to derive a value from this object's parsed value
+		 * @return Supplier which returns the derived value of the current parsed value
+		 */
+		public <R> Supplier<R> map(Function<? super T, ? extends R> function)
+		{
+			return new DerivedValue<>(this, function, null);
+		}
+		
+		/**
+		 * Creates a view of this object's value which is recomputed on an executor when this object's parsed value changes.
+		 * The first derived value is computed on the calling thread; afterward, the previous derived value
+		 * is returned while a new one is being computed.
+		 * @param <R> Type of the derived value
+		 * @param function Function to derive a value from this object's parsed value
+		 * @param executor Executor to compute derived values on, e.g. Util.backgroundExecutor()
+		 * @return Supplier which returns the most recently computed derived value
+		 */
+		public <R> Supplier<R> mapAsync(Function<? super T, ? extends R> function, Executor executor)
+		{
+			return new DerivedValue<>(this, function, Objects.requireNonNull(executor));
+		}
+		
+		/**
+		 * Adds a listener which is notified when this object's parsed value changes, either when the config reloads
+		 * (if the config was registered via {@link ConfigHelper#register}) or when {@link #set} is called.
+		 * Listeners are notified on the thread which reloaded the config or called set.
+		 * @param listener Listener to notify of changes
+		 * @return this
+		 */
+		public ConfigObject<T> addListener(ChangeListener<? super T> listener)
+		{
+			this.listeners.add(listener);
+			return this;
+		}
+		
+		@Override
+		@Nullable
+		public synchronized Change reload()
+		{
+			Object freshObject = this.value.get();
+			@Nullable Change change = null;
+			if (!Objects.equals(this.cachedObject, freshObject))
+			{
+				final @Nullable Object oldRaw = this.cachedObject;
+				final T oldValue = this.parsedObject;
+				final T newValue = this.getReparsedObject(freshObject);
+				this.cachedObject = freshObject;
+				this.parsedObject = newValue;
+				if (!Objects.equals(oldValue, newValue))
+				{
+					change = this.createChange(oldRaw, freshObject, oldValue, newValue);
+				}
+			}
+			this.bound = true;
+			return change;
+		}
+		
+		private Change createChange(@Nullable Object oldRaw, Object newRaw, T oldValue, T newValue)
+		{
+			final Set<String> paths = diffPaths(String.join(".", this.value.getPath()), oldRaw, newRaw);
+			return new Change(paths, () -> {
+				for (ChangeListener<? super T> listener : this.listeners)
+				{
+					try
+					{
+						listener.onChange(oldValue, newValue, paths);
+					}
+					catch (Exception e)
+					{
+						LOGGER.error("Config failure: Exception in config listener", e);
+					}
+				}
+			});
+		}
+		
+		private T getReparsedObject(Object obj)
+		{
+			DataResult<T> parseResult = this.codec.parse(TomlConfigOps.INSTANCE, obj);
+			return parseResult.mapOrElse(
+				result -> result,
+				failure ->
+				{
+					LOGGER.error("Config failure: Using default config value due to parsing error: {}", failure.message());
+					return this.defaultObject;
+				});
+		}
+	}
+	
+	/**
+	 * A config-reload-sensitive wrapper around a config field for a map, whose values are decoded per key when accessed
+	 * @param <K> The type of the map's keys
+	 * @param <V> The type of the map's values
+	 */
+	public static class KeyedConfigObject<K,V> implements Reloadable
+	{
+		private @Nonnull final ConfigValue<Object> value;
+		private @Nonnull final Codec<K> keyCodec;
+		private @Nonnull final Codec<V> valueCodec;
+		private @Nonnull final Map<K,V> defaultMap;
+		private @Nonnull volatile Entries<K,V> entries;
+		/** true once the config this was defined in has loaded and will notify this object of reloads **/
+		private volatile boolean bound = false;
+		
+		private KeyedConfigObject(ConfigValue<Object> value, Codec<K> keyCodec, Codec<V> valueCodec, Map<K,V> defaultMap, Object encodedDefaultObject)
+		{
+			this.value = value;
+			this.keyCodec = keyCodec;
+			this.valueCodec = valueCodec;
+			this.defaultMap = defaultMap;
+			this.entries = this.index(encodedDefaultObject, Entries.empty());
+		}
+		
+		/**
+		 * Gets the value for a key, decoding it if it hasn't been decoded since it last changed
+		 * @param key Key to get the value of
+		 * @return The value for the key, or null if the config has no value for the key
+		 */
+		@Nullable
+		public V get(K key)
+		{
+			final @Nullable Entry<K,V> entry = this.entries().byKey().get(key);
+			return entry == null ? null : entry.get(this);
+		}
+		
+		/**
+		 * @param key Key to check
+		 * @return true if the config has a value for the key
+		 */
+		public boolean containsKey(K key)
+		{
+			return this.entries().byKey().containsKey(key);
+		}
+		
+		/**
+		 * @return Unmodifiable set of the keys in the config. Does not decode any values.
+		 */
+		public Set<K> keySet()
+		{
+			return this.entries().byKey().keySet();
+		}
+		
+		@Override
+		@Nullable
+		public synchronized Change reload()
+		{
+			final Object freshObject = this.value.get();
+			@Nullable Change change = null;
+			if (!Objects.equals(this.entries.raw(), freshObject))
+			{
+				final Object oldRaw = this.entries.raw();
+				this.entries = this.index(freshObject, this.entries);
+				change = new Change(diffPaths(String.join(".", this.value.getPath()), oldRaw, freshObject), () -> {});
+			}
+			this.bound = true;
+			return change;
+		}
+		
+		private Entries<K,V> entries()
+		{
+			if (this.bound)
+			{
+				return this.entries;
+			}
+			// not registered via ConfigHelper#register, check for changes when accessed
+			synchronized(this)
+			{
+				final Object freshObject = this.value.get();
+				if (!Objects.equals(this.entries.raw(), freshObject))
+				{
+					this.entries = this.index(freshObject, this.entries);
+				}
+				return this.entries;
+			}
+		}
+		
+		/**
+		 * Creates entries for each key in a config table, reusing previous entries whose raw values haven't changed
+		 */
+		private Entries<K,V> index(Object raw, Entries<K,V> previous)
+		{
+			if (!(raw instanceof Config config))
+			{
+				LOGGER.error("Config failure: Expected a table but found {}", raw);
+				return new Entries<>(raw, Map.of(), Map.of());
+			}
+			final Map<String, Object> values = config.valueMap();
+			final Map<String, Entry<K,V>> byName = new HashMap<>(values.size());
+			final Map<K, Entry<K,V>> byKey = new HashMap<>(values.size());
+			for (Map.Entry<String, Object> rawEntry : values.entrySet())
+			{
+				final String name = rawEntry.getKey();
+				final Object rawValue = rawEntry.getValue();
+				final @Nullable Entry<K,V> previousEntry = previous.byName().get(name);
+				if (previousEntry != null && Objects.equals(previousEntry.raw, rawValue))
+				{
+					// this key's section is unchanged, keep its decoded value
+					byName.put(name, previousEntry);
+					byKey.put(previousEntry.key, previousEntry);
+					continue;
+				}
+				this.keyCodec.parse(TomlConfigOps.INSTANCE, name)
+					.resultOrPartial(e -> LOGGER.error("Config failure: Ignoring config entry due to key parsing error: {}", e))
+					.ifPresent(key -> {
+						final Entry<K,V> entry = new Entry<>(key, rawValue);
+						byName.put(name, entry);
+						byKey.put(key, entry);
+					});
+			}
+			return new Entries<>(raw, byName, Collections.unmodifiableMap(byKey));
+		}
+		
+		@Nullable
+		private V decode(K key, Object raw)
+		{
+			return this.valueCodec.parse(TomlConfigOps.INSTANCE, raw).mapOrElse(
+				result -> result,
+				failure ->
+				{
+					LOGGER.error("Config failure: Using default config value for {} due to parsing error: {}", key, failure.message());
+					return this.defaultMap.get(key);
+				});
+		}
+		
+		private static record Entries<K,V>(Object raw, Map<String, Entry<K,V>> byName, Map<K, Entry<K,V>> byKey)
+		{
+			private static <K,V> Entries<K,V> empty()
+			{
+				return new Entries<>(NullObject.NULL_OBJECT, Map.of(), Map.of());
+			}
+		}
+		
+		/**
+		 * Raw value of one key and its lazily decoded value
+		 */
+		private static class Entry<K,V>
+		{
+			private final K key;
+			private final Object raw;
+			private volatile boolean decoded = false;
+			private @Nullable V value = null;
+			
+			private Entry(K key, Object raw)
+			{
+				this.key = key;
+				this.raw = raw;
+			}
+			
+			@Nullable
+			private V get(KeyedConfigObject<K,V> owner)
+			{
+				if (!this.decoded)
+				{
+					synchronized(this)
+					{
+						if (!this.decoded)
+						{
+							this.value = owner.decode(this.key, this.raw);
+							this.decoded = true;
+						}
+					}
+				}
+				return this.value;
+			}
+		}
 	}
 	
 	/**
-	 * Define a config value for a complex object.
-	 * @param <T> The type of the thing in the config we are making a listener for
-	 * @param builder Builder to build configs with
-	 * @param name The name of the field in your config that will hold objects of this type
-	 * @param codec A Codec for de/serializing your object type.
-	 * @param defaultObject The default instance of your config field. The given codec must be able to serialize this;
-	 * if it cannot, an exception will be intentionally thrown the first time the config attempts to load.
-	 * If the codec fails to deserialize the config field at a later time, an error message will be logged and this default instance will be used instead.  
-	 * @return A reload-sensitive wrapper around your config object value. Use ConfigObject#get to get the most up-to-date object.
+	 * Memoized value derived from a ConfigObject, recomputed when the ConfigObject's parsed value is replaced
 	 */
-	public static <T> ConfigObject<T> defineObject(ModConfigSpec.Builder builder, String name, Codec<T> codec, T defaultObject)
-	{
-		DataResult<Object> encodeResult = codec.encodeStart(TomlConfigOps.INSTANCE, defaultObject);
-		Object encodedObject = encodeResult.getOrThrow(s -> new IllegalArgumentException(String.format("Unable to encode default value %s: %s", defaultObject, s)));
-		ConfigValue<Object> value = builder.define(name, encodedObject);
-		return new ConfigObject<>(value, codec, defaultObject, encodedObject);
-	}
-	
-	/**
-	 * A config-reload-sensitive wrapper around a config field for a complex object
-	 **/
-	public static class ConfigObject<T> implements Supplier<T>
+	private static class DerivedValue<T,R> implements Supplier<R>
 	{
-		private @Nonnull final ConfigValue<Object> value;
-		private @Nonnull final Codec<T> codec;
-		private @Nonnull Object cachedObject;
-		private @Nonnull T parsedObject;
-		private @Nonnull T defaultObject;
+		private final ConfigObject<T> source;
+		private final Function<? super T, ? extends R> function;
+		private final @Nullable Executor executor;
+		/** null until the first value is derived **/
+		private final AtomicReference<Memo<T,R>> memo = new AtomicReference<>();
+		/** source value currently being derived on the executor **/
+		private final AtomicReference<T> pending = new AtomicReference<>();
 		
-		private ConfigObject(ConfigValue<Object> value, Codec<T> codec, T defaultObject, Object encodedDefaultObject)
+		private DerivedValue(ConfigObject<T> source, Function<? super T, ? extends R> function, @Nullable Executor executor)
 		{
-			this.value = value;
-			this.codec = codec;
-			this.defaultObject = defaultObject;
-			this.parsedObject = defaultObject;
-			this.cachedObject = encodedDefaultObject;
+			this.source = source;
+			this.function = function;
+			this.executor = executor;
 		}
 
 		@Override
-		@Nonnull
-		public T get()
+		public R get()
 		{
-			Object freshObject = this.value.get();
-			if (!Objects.equals(this.cachedObject, freshObject))
+			final T sourceValue = this.source.get();
+			final @Nullable Memo<T,R> memo = this.memo.get();
+			if (memo != null && memo.source() == sourceValue)
 			{
-				this.cachedObject = freshObject;
-				this.parsedObject = this.getReparsedObject(freshObject);
+				return memo.result();
 			}
-			return this.parsedObject;
+			if (memo == null || this.executor == null)
+			{
+				return this.compute(sourceValue);
+			}
+			if (this.pending.getAndSet(sourceValue) != sourceValue)
+			{
+				this.executor.execute(() -> {
+					try
+					{
+						this.publish(new Memo<>(sourceValue, this.function.apply(sourceValue)));
+					}
+					catch (Exception e)
+					{
+						LOGGER.error("Config failure: Could not derive value from {}", sourceValue, e);
+					}
+					finally
+					{
+						this.pending.compareAndSet(sourceValue, null);
+					}
+				});
+			}
+			return memo.result();
+		}
+		
+		private synchronized R compute(T sourceValue)
+		{
+			final @Nullable Memo<T,R> memo = this.memo.get();
+			if (memo != null && memo.source() == sourceValue)
+			{
+				return memo.result();
+			}
+			final R result = this.function.apply(sourceValue);
+			this.memo.set(new Memo<>(sourceValue, result));
+			return result;
 		}
 		
 		/**
-		 * Sets the config field to a new value and saves the config
-		 * @param value Value to serialize to the config. If object cannot be serialized, an error will be logged and no change will occur.
+		 * Publishes an asynchronously derived memo, unless its source value has been superseded while it was being derived
+		 * (so that a slow task for an older value can't overwrite a newer result)
 		 */
-		public void set(T value)
+		private void publish(Memo<T,R> newMemo)
 		{
-			this.codec.encodeStart(TomlConfigOps.INSTANCE, value)
-				.resultOrPartial(e -> LOGGER.error("Config failure: Could not save value {} due to encoding error: {}", value, e))
-				.ifPresent(serializedObject -> {
-					this.value.set(serializedObject);
-					this.value.save();
-					this.parsedObject = value;
-					this.cachedObject = serializedObject;
-				});
+			final T sourceValue = newMemo.source();
+			while (true)
+			{
+				final @Nullable Memo<T,R> current = this.memo.get();
+				if (current != null && current.source() == sourceValue)
+				{
+					return;
+				}
+				if (this.pending.get() != sourceValue && this.source.get() != sourceValue)
+				{
+					return;
+				}
+				if (this.memo.compareAndSet(current, newMemo))
+				{
+					return;
+				}
+			}
 		}
 		
-		private T getReparsedObject(Object obj)
+		private static record Memo<T,R>(T source, R result) {}
+	}
+	
+	/**
+	 * Saves config files with changes to write-behind ConfigObjects on a background thread
+	 */
+	private static final class WriteBehindSaver
+	{
+		/** config files with unsaved changes, to a value of that file to save it with **/
+		private static final Map<ConfigFile, ConfigValue<?>> DIRTY = new ConcurrentHashMap<>();
+		private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "DataBuddy Config Saver");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		static
 		{
-			DataResult<T> parseResult = this.codec.parse(TomlConfigOps.INSTANCE, obj);
-			return parseResult.mapOrElse(
-				result -> result,
-				failure ->
+			NeoForge.EVENT_BUS.addListener(ServerStoppingEvent.class, event -> flush());
+			NeoForge.EVENT_BUS.addListener(GameShuttingDownEvent.class, event -> flush());
+		}
+		
+		private static void schedule(ConfigFile file, ConfigValue<?> value, Duration interval)
+		{
+			// if the file is already dirty, the scheduled save will include this change
+			if (DIRTY.putIfAbsent(file, value) == null)
+			{
+				EXECUTOR.schedule(() -> save(file), interval.toMillis(), TimeUnit.MILLISECONDS);
+			}
+		}
+		
+		private static void save(ConfigFile file)
+		{
+			final @Nullable ConfigValue<?> value = DIRTY.remove(file);
+			if (value != null)
+			{
+				try
 				{
-					LOGGER.error("Config failure: Using default config value due to parsing error: {}", failure.message());
-					return this.defaultObject;
-				});
+					synchronized(file)
+					{
+						value.save();
+					}
+				}
+				catch (Exception e)
+				{
+					LOGGER.error("Config failure: Could not save config", e);
+				}
+			}
+		}
+		
+		private static void flush()
+		{
+			for (ConfigFile file : List.copyOf(DIRTY.keySet()))
+			{
+				save(file);
+			}
 		}
 	}
 	
@@ -209,6 +1194,11 @@ public class ConfigHelper
 	{
 		/** instance **/
 		public static final TomlConfigOps INSTANCE = new TomlConfigOps();
+		/**
+		 * The list or config most recently created by a single-element merge on each thread.
+		 * Merging one more element onto it appends in place instead of copying, so merging n elements one at a time is O(n).
+		 */
+		private static final ThreadLocal<WeakReference<Object>> LAST_SINGLE_MERGE = ThreadLocal.withInitial(() -> new WeakReference<>(null));
 
 		@Override
 		public Object empty()
@@ -219,13 +1209,26 @@ public class ConfigHelper
 		@Override
 		public <U> U convertTo(DynamicOps<U> outOps, Object input)
 		{
+			// most common types first
+			if (input instanceof String s)
+			{
+				return outOps.createString(s);
+			}
+			if (input instanceof Number n)
+			{
+				return outOps.createNumeric(n);
+			}
+			if (input instanceof Boolean b)
+			{
+				return outOps.createBoolean(b);
+			}
 			if (input instanceof Config)
 			{
-				return this.convertMap(outOps, input);
+				return OpsTranscoder.transcodeMap(this, outOps, input);
 			}
 			if (input instanceof Collection)
 			{
-				return this.convertList(outOps, input);
+				return OpsTranscoder.transcodeList(this, outOps, input);
 			}
 			if (input == null || input instanceof NullObject)
 			{
@@ -239,18 +1242,6 @@ public class ConfigHelper
 			{
 				return outOps.createString(input.toString());
 			}
-			if (input instanceof String s)
-			{
-				return outOps.createString(s);
-			}
-			if (input instanceof Boolean b)
-			{
-				return outOps.createBoolean(b);
-			}
-			if (input instanceof Number n)
-			{
-				return outOps.createNumeric(n);
-			}
 			throw new UnsupportedOperationException("TomlConfigOps was unable to convert toml value: " + input);
 		}
 
@@ -315,14 +1306,32 @@ public class ConfigHelper
 		@Override
 		public DataResult<Object> mergeToList(Object list, List<Object> values)
 		{
-			// default mergeToList returns the null object if list is empty;
-			// toml doesn't support null values so we need to convert to an empty list
-			return DynamicOps.super.mergeToList(list, values)
-				.map(obj -> obj == this.empty()
-					? new ArrayList<>()
-					: obj);
+			// copy the list once instead of once per value
+			// (the default mergeToList also returns the null object if list is empty,
+			// but toml doesn't support null values so we always return a list)
+			if (!(list instanceof Collection) && list != this.empty())
+			{
+				return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+			}
+			final List<Object> result;
+			if (list instanceof Collection<?> collection)
+			{
+				result = new ArrayList<>(collection.size() + values.size());
+				result.addAll(collection);
+			}
+			else
+			{
+				result = new ArrayList<>(values.size());
+			}
+			result.addAll(values);
+			return DataResult.success(result);
 		}
 
+		/**
+		 * {@inheritDoc}
+		 * If the list was created by the previous single-element merge on this thread, the value is appended to it in place
+		 * (merge results are only ever merged onto linearly), otherwise the list is copied.
+		 */
 		@Override
 		public DataResult<Object> mergeToList(Object list, Object value)
 		{
@@ -330,17 +1339,33 @@ public class ConfigHelper
 			{
 				return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
 			}
-			final Collection<Object> result = new ArrayList<>();
-			if (list != this.empty())
+			final Collection<Object> result;
+			if (list != this.empty() && isLastSingleMerge(list))
 			{
 				@SuppressWarnings("unchecked")
 				Collection<Object> listAsCollection = (Collection<Object>)list;
-				result.addAll(listAsCollection);
+				result = listAsCollection;
+			}
+			else
+			{
+				result = new ArrayList<>();
+				if (list != this.empty())
+				{
+					@SuppressWarnings("unchecked")
+					Collection<Object> listAsCollection = (Collection<Object>)list;
+					result.addAll(listAsCollection);
+				}
+				LAST_SINGLE_MERGE.set(new WeakReference<>(result));
 			}
 			result.add(value);
 			return DataResult.success(result);
 		}
 
+		/**
+		 * {@inheritDoc}
+		 * If the map was created by the previous single-element merge on this thread, the entry is added to it in place
+		 * (merge results are only ever merged onto linearly), otherwise the map is copied.
+		 */
 		@Override
 		public DataResult<Object> mergeToMap(Object map, Object key, Object value)
 		{
@@ -355,17 +1380,73 @@ public class ConfigHelper
 				return DataResult.error(() -> "key is not a string: " + key, map);
 			}
 			return stringResult.flatMap(s ->{
-
-				final Config output = TomlFormat.newConfig();
-				if (map != this.empty())
+				final Config output;
+				if (map != this.empty() && isLastSingleMerge(map))
+				{
+					output = (Config)map;
+				}
+				else
 				{
-					Config oldConfig = (Config)map;
-					output.addAll(oldConfig);
+					output = TomlFormat.newConfig();
+					if (map != this.empty())
+					{
+						Config oldConfig = (Config)map;
+						output.addAll(oldConfig);
+					}
+					LAST_SINGLE_MERGE.set(new WeakReference<>(output));
 				}
 				output.add(s, value);
 				return DataResult.success(output);
 			});
 		}
+		
+		private static boolean isLastSingleMerge(Object container)
+		{
+			return LAST_SINGLE_MERGE.get().get() == container;
+		}
+
+		@Override
+		public DataResult<Object> mergeToMap(Object map, Map<Object, Object> values)
+		{
+			return this.mergeEntries(map, values::forEach);
+		}
+
+		@Override
+		public DataResult<Object> mergeToMap(Object map, MapLike<Object> values)
+		{
+			return this.mergeEntries(map, consumer -> values.entries().forEach(pair -> consumer.accept(pair.getFirst(), pair.getSecond())));
+		}
+		
+		/**
+		 * Copies a map once and adds all given entries to the copy
+		 */
+		private DataResult<Object> mergeEntries(Object map, Consumer<BiConsumer<Object, Object>> entries)
+		{
+			if (!(map instanceof Config) && map != this.empty())
+			{
+				return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+			}
+			final Config output = TomlFormat.newConfig();
+			if (map instanceof Config oldConfig)
+			{
+				output.addAll(oldConfig);
+			}
+			final List<Object> badKeys = new ArrayList<>();
+			entries.accept((key, value) -> this.getStringValue(key)
+				.ifSuccess(s -> output.add(s, value))
+				.ifError(e -> badKeys.add(key)));
+			if (!badKeys.isEmpty())
+			{
+				return DataResult.error(() -> "keys are not strings: " + badKeys, output);
+			}
+			return DataResult.success(output);
+		}
+
+		@Override
+		public RecordBuilder<Object> mapBuilder()
+		{
+			return new ConfigMapBuilder(this);
+		}
 
 		@Override
 		public DataResult<Stream<Pair<Object, Object>>> getMapValues(Object input)
@@ -375,7 +1456,27 @@ public class ConfigHelper
 				return DataResult.error(() -> "Not a Config: " + input);
 			}
 			final Config config = (Config)input;
-			return DataResult.success(config.entrySet().stream().map(entry -> Pair.of(entry.getKey(), entry.getValue())));
+			return DataResult.success(config.valueMap().entrySet().stream().map(entry -> Pair.of(entry.getKey(), entry.getValue())));
+		}
+
+		@Override
+		public DataResult<Consumer<BiConsumer<Object, Object>>> getMapEntries(Object input)
+		{
+			if (input instanceof Config config)
+			{
+				return DataResult.success(consumer -> config.valueMap().forEach(consumer::accept));
+			}
+			return DataResult.error(() -> "Not a Config: " + input);
+		}
+
+		@Override
+		public DataResult<MapLike<Object>> getMap(Object input)
+		{
+			if (input instanceof Config config)
+			{
+				return DataResult.success(new ConfigMapLike(config.valueMap()));
+			}
+			return DataResult.error(() -> "Not a Config: " + input);
 		}
 
 		@Override
@@ -398,10 +1499,82 @@ public class ConfigHelper
 			return DataResult.error(() -> "Not a collection: " + input);
 		}
 
+		@Override
+		public DataResult<Consumer<Consumer<Object>>> getList(Object input)
+		{
+			if (input instanceof Collection<?> collection)
+			{
+				return DataResult.success(collection::forEach);
+			}
+			return DataResult.error(() -> "Not a collection: " + input);
+		}
+
+		@Override
+		public DataResult<IntStream> getIntStream(Object input)
+		{
+			if (input instanceof Collection<?> collection)
+			{
+				final int[] values = new int[collection.size()];
+				int i = 0;
+				for (Object element : collection)
+				{
+					if (!(element instanceof Number n))
+					{
+						return DataResult.error(() -> "Some elements are not ints: " + input);
+					}
+					values[i++] = n.intValue();
+				}
+				return DataResult.success(IntStream.of(values));
+			}
+			return DataResult.error(() -> "Not a collection: " + input);
+		}
+
+		@Override
+		public DataResult<LongStream> getLongStream(Object input)
+		{
+			if (input instanceof Collection<?> collection)
+			{
+				final long[] values = new long[collection.size()];
+				int i = 0;
+				for (Object element : collection)
+				{
+					if (!(element instanceof Number n))
+					{
+						return DataResult.error(() -> "Some elements are not longs: " + input);
+					}
+					values[i++] = n.longValue();
+				}
+				return DataResult.success(LongStream.of(values));
+			}
+			return DataResult.error(() -> "Not a collection: " + input);
+		}
+
+		@Override
+		public DataResult<ByteBuffer> getByteBuffer(Object input)
+		{
+			if (input instanceof Collection<?> collection)
+			{
+				final byte[] values = new byte[collection.size()];
+				int i = 0;
+				for (Object element : collection)
+				{
+					if (!(element instanceof Number n))
+					{
+						return DataResult.error(() -> "Some elements are not bytes: " + input);
+					}
+					values[i++] = n.byteValue();
+				}
+				return DataResult.success(ByteBuffer.wrap(values));
+			}
+			return DataResult.error(() -> "Not a collection: " + input);
+		}
+
 		@Override
 		public Object createList(Stream<Object> input)
 		{
-			return input.toList();
+			// must be an ArrayList, as ModConfigSpec validates values by checking that the default value's class
+			// is assignable from the class of the value read from the file (which night-config reads as an ArrayList)
+			return input.collect(Collectors.toCollection(ArrayList::new));
 		}
 
 		@Override
@@ -409,10 +1582,14 @@ public class ConfigHelper
 		{
 			if (input instanceof Config oldConfig)
 			{
+				final List<String> path = Collections.singletonList(key);
+				if (!oldConfig.contains(path))
+				{
+					return input;
+				}
 				final Config result = TomlFormat.newConfig();
-				oldConfig.entrySet().stream()
-					.filter(entry -> !Objects.equals(entry.getKey(), key))
-					.forEach(entry -> result.add(entry.getKey(), entry.getValue()));
+				result.addAll(oldConfig);
+				result.remove(path);
 				return result;
 			}
 			return input;
@@ -423,6 +1600,84 @@ public class ConfigHelper
 		{
 			return "TOML";
 		}
+		
+		/**
+		 * MapLike view of a config's top-level values
+		 */
+		private static record ConfigMapLike(Map<String, Object> values) implements MapLike<Object>
+		{
+			@Override
+			@Nullable
+			public Object get(Object key)
+			{
+				return key instanceof Config || key instanceof Collection
+					? null
+					: this.values.get(String.valueOf(key));
+			}
+
+			@Override
+			@Nullable
+			public Object get(String key)
+			{
+				return this.values.get(key);
+			}
+
+			@Override
+			public Stream<Pair<Object, Object>> entries()
+			{
+				return this.values.entrySet().stream().map(entry -> Pair.of(entry.getKey(), entry.getValue()));
+			}
+			
+			@Override
+			public String toString()
+			{
+				return "MapLike[" + this.values + "]";
+			}
+		}
+		
+		/**
+		 * RecordBuilder that adds fields to one mutable Config and only copies when building onto a non-empty prefix
+		 */
+		private static class ConfigMapBuilder extends RecordBuilder.AbstractStringBuilder<Object, Config>
+		{
+			private ConfigMapBuilder(TomlConfigOps ops)
+			{
+				super(ops);
+			}
+
+			@Override
+			protected Config initBuilder()
+			{
+				return TomlFormat.newConfig();
+			}
+
+			@Override
+			protected Config append(String key, Object value, Config builder)
+			{
+				builder.add(key, value);
+				return builder;
+			}
+
+			@Override
+			protected DataResult<Object> build(Config builder, Object prefix)
+			{
+				if (prefix == null || prefix == this.ops().empty())
+				{
+					return DataResult.success(builder);
+				}
+				if (prefix instanceof Config prefixConfig)
+				{
+					final Config result = TomlFormat.newConfig();
+					result.addAll(prefixConfig);
+					for (Config.Entry entry : builder.entrySet())
+					{
+						result.add(Collections.singletonList(entry.getKey()), entry.getValue());
+					}
+					return DataResult.success(result);
+				}
+				return DataResult.error(() -> "mergeToMap called with not a map: " + prefix, prefix);
+			}
+		}
 	}
 
 }
@@ -0,0 +1,700 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.data;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import net.minecraft.Util;
+import net.minecraft.network.VarInt;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.ModList;
+import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.OnDatapackSyncEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+import net.neoforged.neoforge.network.registration.HandlerThread;
+import net.neoforged.neoforge.network.registration.PayloadRegistrar;
+
+/**
+ * <p>Library-provided sync channel for a {@link MergeableCodecDataManager}, created via
+ * {@link MergeableCodecDataManager#subscribeAsSyncable(ResourceLocation, StreamCodec)}.</p>
+ * 
+ * <p>Rather than sending the full data to each player on every datapack sync, the server first sends a hash of the encoded data.
+ * Clients keep previously received data on disk (in the "databuddy/synccache" folder of the game directory, keyed by server address and hash),
+ * and only request the full data from the server when they don't already have data matching that hash.</p>
+ * 
+ * <p>Received data is read, decoded, and post-processed on a background thread, then published to the client-side mirror
+ * (see {@link #getClientData()}) in a single atomic swap, so the client's main thread never waits on synced data.
+ * Received payloads are processed one at a time in the order they were received.</p>
+ * 
+ * <p>An optional {@link SyncFilter} can be provided to only send each player the entries relevant to them.
+ * Each entry is encoded at most once per reload, and players who can see the same set of entries share the same encoded payload.</p>
+ * 
+ * <p>The channel registers three payload types on the mod bus of the mod whose modid matches the namespace of the channel id,
+ * so the channel should be created during construction of that mod.</p>
+ * @param <FINE> The type of the data entries being synced
+ */
+public class DataSyncChannel<FINE>
+{
+	private static final Logger LOGGER = LogManager.getLogger();
+	
+	/** Version of the sync protocol; clients and servers with different versions cannot connect **/
+	public static final String PROTOCOL_VERSION = "1";
+	/** Number of snapshots to keep on disk per server per channel **/
+	public static final int CACHED_SNAPSHOTS_PER_CHANNEL = 4;
+	private static final String CACHE_EXTENSION = ".bin";
+	
+	private final ResourceLocation channelId;
+	private final StreamCodec<? super ByteBuf, FINE> valueCodec;
+	private final Supplier<Map<ResourceLocation, FINE>> serverData;
+	private final @Nullable SyncFilter<FINE> filter;
+	private final CustomPacketPayload.Type<HashPayload> hashType;
+	private final CustomPacketPayload.Type<RequestPayload> requestType;
+	private final CustomPacketPayload.Type<DataPayload> dataType;
+	
+	private @Nullable Generation<FINE> generation = null;
+	private final AtomicLong clientSequence = new AtomicLong();
+	private final AtomicReference<ClientState<FINE>> clientState = new AtomicReference<>(new ClientState<>(0L, null, Map.of(), List.of()));
+	private final List<Consumer<Map<ResourceLocation, FINE>>> clientListeners = new CopyOnWriteArrayList<>();
+	private final List<Function<? super Map<ResourceLocation, FINE>, ?>> clientPostProcessors = new CopyOnWriteArrayList<>();
+	/** runs client-side decoding, publishing, and listeners serially, in the order payloads were received **/
+	private final Executor clientExecutor = MoreExecutors.newSequentialExecutor(Util.backgroundExecutor());
+	
+	/**
+	 * Creates a sync channel and subscribes it to the necessary events.
+	 * @param <FINE> The type of the data entries being synced
+	 * @param channelId Unique id of the channel, e.g. "yourmod:cheeses". The namespace must be the modid of the mod that owns the channel.
+	 * @param valueCodec StreamCodec to write the data entries to the network and the client's disk cache with
+	 * @param serverData Supplier of the current server-side data (usually the data manager's getData)
+	 * @param filter Filter determining which entries each player receives, or null to send all entries to all players
+	 * @return A new sync channel
+	 */
+	public static <FINE> DataSyncChannel<FINE> subscribe(final ResourceLocation channelId, final StreamCodec<? super ByteBuf, FINE> valueCodec, final Supplier<Map<ResourceLocation, FINE>> serverData, final @Nullable SyncFilter<FINE> filter)
+	{
+		DataSyncChannel<FINE> channel = new DataSyncChannel<>(channelId, valueCodec, serverData, filter);
+		IEventBus modBus = ModList.get().getModContainerById(channelId.getNamespace()).get().getEventBus();
+		modBus.addListener(RegisterPayloadHandlersEvent.class, channel::onRegisterPayloadHandlers);
+		NeoForge.EVENT_BUS.addListener(OnDatapackSyncEvent.class, channel::onDatapackSync);
+		SyncScheduler.subscribe();
+		if (FMLEnvironment.dist.isClient())
+		{
+			ClientEvents.subscribe(channel);
+		}
+		return channel;
+	}
+	
+	private DataSyncChannel(final ResourceLocation channelId, final StreamCodec<? super ByteBuf, FINE> valueCodec, final Supplier<Map<ResourceLocation, FINE>> serverData, final @Nullable SyncFilter<FINE> filter)
+	{
+		this.channelId = channelId;
+		this.valueCodec = valueCodec;
+		this.serverData = serverData;
+		this.filter = filter;
+		this.hashType = new CustomPacketPayload.Type<>(channelId.withSuffix("/hash"));
+		this.requestType = new CustomPacketPayload.Type<>(channelId.withSuffix("/request"));
+		this.dataType = new CustomPacketPayload.Type<>(channelId.withSuffix("/data"));
+	}
+	
+	/**
+	 * Safe to call from any thread; never blocks.
+	 * @return The most recent data received from the server, or an empty map if no data has been received yet
+	 */
+	public Map<ResourceLocation, FINE> getClientData()
+	{
+		return this.clientState.get().data();
+	}
+	
+	/**
+	 * Adds a listener that is called on the client each time new data from the server is published.
+	 * Listeners are called on a background thread after the new data is visible via {@link #getClientData()},
+	 * so expensive post-processing can be done in the listener without stalling the client.
+	 * Listeners are called for one publish at a time, in the order the data was received.
+	 * Work that must happen on the main thread should be scheduled there by the listener.
+	 * @param listener Consumer of the newly published data
+	 */
+	public void addClientListener(final Consumer<Map<ResourceLocation, FINE>> listener)
+	{
+		this.clientListeners.add(listener);
+	}
+	
+	/**
+	 * Adds a post-processing stage that derives a value from data received from the server.
+	 * The derived value is computed on a background thread before the data is published,
+	 * and is published atomically with the data it was derived from.
+	 * Post-processors should be added before any data is received.
+	 * @param <R> The type of the derived value
+	 * @param postProcessor Function to derive a value from the received data
+	 * @return Supplier of the value derived from the data currently returned by {@link #getClientData()}; safe to call from any thread
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> Supplier<R> addClientPostProcessor(final Function<? super Map<ResourceLocation, FINE>, ? extends R> postProcessor)
+	{
+		final int index;
+		synchronized(this.clientPostProcessors)
+		{
+			index = this.clientPostProcessors.size();
+			this.clientPostProcessors.add(postProcessor);
+		}
+		// if the current state was published before this post-processor was added, it's processed once when first needed
+		final AtomicReference<LateProcessed<FINE>> late = new AtomicReference<>();
+		return () -> {
+			ClientState<FINE> state = this.clientState.get();
+			if (index < state.processed().size())
+			{
+				return (R)state.processed().get(index);
+			}
+			@Nullable LateProcessed<FINE> lateProcessed = late.get();
+			if (lateProcessed == null || lateProcessed.state() != state)
+			{
+				synchronized(late)
+				{
+					lateProcessed = late.get();
+					if (lateProcessed == null || lateProcessed.state() != state)
+					{
+						lateProcessed = new LateProcessed<>(state, postProcessor.apply(state.data()));
+						late.set(lateProcessed);
+					}
+				}
+			}
+			return (R)lateProcessed.value();
+		};
+	}
+	
+	private void onRegisterPayloadHandlers(final RegisterPayloadHandlersEvent event)
+	{
+		PayloadRegistrar registrar = event.registrar(PROTOCOL_VERSION);
+		// client handlers only hand work off to the background executor, so they don't need to wait for the main thread
+		PayloadRegistrar clientRegistrar = registrar.executesOn(HandlerThread.NETWORK);
+		clientRegistrar.playToClient(this.hashType, HashPayload.streamCodec(this.hashType), this::onHashReceived);
+		registrar.playToServer(this.requestType, RequestPayload.streamCodec(this.requestType), this::onRequestReceived);
+		clientRegistrar.playToClient(this.dataType, DataPayload.streamCodec(this.dataType), this::onDataReceived);
+	}
+	
+	private void onDatapackSync(final OnDatapackSyncEvent event)
+	{
+		@Nullable ServerPlayer joiningPlayer = event.getPlayer();
+		if (joiningPlayer != null)
+		{
+			SyncScheduler.markLoggingIn(joiningPlayer);
+		}
+		event.getRelevantPlayers().forEach(this::resync);
+	}
+	
+	/**
+	 * Sends a player the hash of the data currently visible to them, so they receive any entries that have become visible
+	 * (and drop any that have become invisible) since they were last synced. Call this on the server thread when something
+	 * affecting a {@link SyncFilter}'s result for a player changes, e.g. when the player changes dimension or unlocks something.
+	 * If the visible data hasn't changed, the client recognizes the hash of the data it already has and ignores it,
+	 * so nothing else is sent.
+	 * @param player The player to sync data to
+	 */
+	public void resync(final ServerPlayer player)
+	{
+		PacketDistributor.sendToPlayer(player, new HashPayload(this.hashType, this.getSnapshot(player).hash()));
+	}
+	
+	/**
+	 * Server-side handler, runs when a client doesn't have the data matching the hash we sent it.
+	 * Always responds with the current data, as the data may have changed since the hash was sent.
+	 * The response is paced by the {@link SyncScheduler}.
+	 */
+	private void onRequestReceived(final RequestPayload payload, final IPayloadContext context)
+	{
+		if (context.player() instanceof ServerPlayer player)
+		{
+			Snapshot snapshot = this.getSnapshot(player);
+			SyncScheduler.enqueue(player, new DataPayload(this.dataType, snapshot.hash(), snapshot.bytes()), snapshot.bytes().length);
+		}
+	}
+	
+	private void onHashReceived(final HashPayload payload, final IPayloadContext context)
+	{
+		final long sequence = this.clientSequence.incrementAndGet();
+		final @Nullable Path cacheFile = this.getCacheFile(context, payload.hash());
+		CompletableFuture.runAsync(() -> {
+			// checked on the client executor, after any previously received data has been published
+			if (Arrays.equals(this.clientState.get().hash(), payload.hash()))
+			{
+				return;
+			}
+			@Nullable byte[] cachedBytes = cacheFile == null ? null : readCacheFile(cacheFile, payload.hash());
+			if (cachedBytes != null && this.applyClientData(sequence, payload.hash(), cachedBytes))
+			{
+				return;
+			}
+			context.reply(new RequestPayload(this.requestType, payload.hash()));
+		}, this.clientExecutor);
+	}
+	
+	private void onDataReceived(final DataPayload payload, final IPayloadContext context)
+	{
+		final long sequence = this.clientSequence.incrementAndGet();
+		final @Nullable Path cacheFile = this.getCacheFile(context, payload.hash());
+		CompletableFuture.runAsync(() -> {
+			if (!Arrays.equals(payload.hash(), hash(payload.data())))
+			{
+				LOGGER.error("Received data for sync channel {} that does not match its hash, ignoring", this.channelId);
+				return;
+			}
+			if (this.applyClientData(sequence, payload.hash(), payload.data()) && cacheFile != null)
+			{
+				writeCacheFile(cacheFile, payload.data());
+			}
+		}, this.clientExecutor);
+	}
+	
+	/**
+	 * Decodes data and publishes it to the client mirror, unless data from a more recent payload has already been published.
+	 * @param sequence The order in which the payload containing the data was received
+	 * @param hash Hash of the encoded data
+	 * @param bytes Encoded data
+	 * @return true if the data was decoded successfully, false otherwise
+	 */
+	private boolean applyClientData(final long sequence, final byte[] hash, final byte[] bytes)
+	{
+		final Map<ResourceLocation, FINE> data;
+		try
+		{
+			data = this.decode(bytes);
+		}
+		catch (Exception e)
+		{
+			LOGGER.error(String.format("Failed to decode data for sync channel %s", this.channelId), e);
+			return false;
+		}
+		this.publishClientData(sequence, hash, data);
+		return true;
+	}
+	
+	/**
+	 * Clears the client mirror when the client disconnects, so data from the previous server isn't used on the next one
+	 */
+	private void clearClientData()
+	{
+		final long sequence = this.clientSequence.incrementAndGet();
+		this.clientExecutor.execute(() -> this.publishClientData(sequence, null, Map.of()));
+	}
+	
+	/**
+	 * Post-processes data, publishes it to the client mirror, and notifies listeners,
+	 * unless data from a more recent payload has already been published.
+	 * Only called on the client executor, so publishes and listeners never overlap.
+	 */
+	private void publishClientData(final long sequence, final @Nullable byte[] hash, final Map<ResourceLocation, FINE> data)
+	{
+		if (sequence <= this.clientState.get().sequence())
+		{
+			return;
+		}
+		List<Object> processed = new ArrayList<>(this.clientPostProcessors.size());
+		for (var postProcessor : this.clientPostProcessors)
+		{
+			try
+			{
+				processed.add(postProcessor.apply(data));
+			}
+			catch (Exception e)
+			{
+				LOGGER.error(String.format("Client post-processor for sync channel %s failed", this.channelId), e);
+				processed.add(null);
+			}
+		}
+		this.clientState.set(new ClientState<>(sequence, hash, data, Collections.unmodifiableList(processed)));
+		for (var listener : this.clientListeners)
+		{
+			try
+			{
+				listener.accept(data);
+			}
+			catch (Exception e)
+			{
+				LOGGER.error(String.format("Client listener for sync channel %s failed", this.channelId), e);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the encoded form of the current server data visible to a player.
+	 * Entries are only re-encoded if the data has changed since the last time.
+	 * @param player The player to get the visible data for
+	 * @return Snapshot of the current server data visible to the player
+	 */
+	private Snapshot getSnapshot(final ServerPlayer player)
+	{
+		Generation<FINE> generation = this.getGeneration();
+		BitSet visibleEntries = generation.allEntries;
+		if (this.filter != null)
+		{
+			visibleEntries = new BitSet(generation.ids.size());
+			for (int i=0; i<generation.ids.size(); i++)
+			{
+				ResourceLocation id = generation.ids.get(i);
+				if (this.filter.isVisible(player, id, generation.source.get(id)))
+				{
+					visibleEntries.set(i);
+				}
+			}
+		}
+		return generation.snapshots.computeIfAbsent(visibleEntries, entries -> this.encode(generation, entries));
+	}
+	
+	private synchronized Generation<FINE> getGeneration()
+	{
+		Map<ResourceLocation, FINE> data = this.serverData.get();
+		@Nullable Generation<FINE> generation = this.generation;
+		if (generation == null || generation.source != data)
+		{
+			generation = new Generation<>(data);
+			this.generation = generation;
+		}
+		return generation;
+	}
+	
+	private Snapshot encode(final Generation<FINE> generation, final BitSet visibleEntries)
+	{
+		ByteBuf buf = Unpooled.buffer();
+		try
+		{
+			VarInt.write(buf, visibleEntries.cardinality());
+			for (int i = visibleEntries.nextSetBit(0); i >= 0; i = visibleEntries.nextSetBit(i+1))
+			{
+				buf.writeBytes(this.getFragment(generation, i));
+			}
+			byte[] bytes = ByteBufUtil.getBytes(buf);
+			return new Snapshot(hash(bytes), bytes);
+		}
+		finally
+		{
+			buf.release();
+		}
+	}
+	
+	/**
+	 * @return The encoded id and value of an entry, encoding it if it hasn't been encoded yet
+	 */
+	private byte[] getFragment(final Generation<FINE> generation, final int index)
+	{
+		synchronized(generation.fragments)
+		{
+			@Nullable byte[] fragment = generation.fragments[index];
+			if (fragment == null)
+			{
+				ResourceLocation id = generation.ids.get(index);
+				ByteBuf buf = Unpooled.buffer();
+				try
+				{
+					ResourceLocation.STREAM_CODEC.encode(buf, id);
+					this.valueCodec.encode(buf, generation.source.get(id));
+					fragment = ByteBufUtil.getBytes(buf);
+				}
+				finally
+				{
+					buf.release();
+				}
+				generation.fragments[index] = fragment;
+			}
+			return fragment;
+		}
+	}
+	
+	private Map<ResourceLocation, FINE> decode(final byte[] bytes)
+	{
+		ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+		int size = VarInt.read(buf);
+		Map<ResourceLocation, FINE> map = new HashMap<>(size);
+		for (int i=0; i<size; i++)
+		{
+			ResourceLocation id = ResourceLocation.STREAM_CODEC.decode(buf);
+			map.put(id, this.valueCodec.decode(buf));
+		}
+		return Map.copyOf(map);
+	}
+	
+	/**
+	 * @return The file to cache data with the given hash in, or null if the data should not be cached (e.g. in singleplayer)
+	 */
+	private @Nullable Path getCacheFile(final IPayloadContext context, final byte[] hash)
+	{
+		if (context.connection().isMemoryConnection())
+		{
+			return null;
+		}
+		SocketAddress address = context.connection().getRemoteAddress();
+		String serverKey = String.valueOf(address).replaceAll("[^a-zA-Z0-9._-]", "_");
+		return FMLPaths.GAMEDIR.get()
+			.resolve("databuddy")
+			.resolve("synccache")
+			.resolve(serverKey)
+			.resolve(this.channelId.getNamespace())
+			.resolve(this.channelId.getPath())
+			.resolve(HashCode.fromBytes(hash).toString() + CACHE_EXTENSION);
+	}
+	
+	private static @Nullable byte[] readCacheFile(final Path file, final byte[] hash)
+	{
+		if (!Files.exists(file))
+		{
+			return null;
+		}
+		try
+		{
+			byte[] bytes = Files.readAllBytes(file);
+			if (!Arrays.equals(hash, hash(bytes)))
+			{
+				LOGGER.warn("Cached sync data {} is corrupt, deleting", file);
+				Files.deleteIfExists(file);
+				return null;
+			}
+			// mark as recently used so it doesn't get pruned
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			return bytes;
+		}
+		catch (IOException e)
+		{
+			LOGGER.error(String.format("Failed to read cached sync data %s", file), e);
+			return null;
+		}
+	}
+	
+	private static void writeCacheFile(final Path file, final byte[] bytes)
+	{
+		try
+		{
+			Path folder = file.getParent();
+			Files.createDirectories(folder);
+			Files.write(file, bytes);
+			pruneCacheFolder(folder);
+		}
+		catch (IOException e)
+		{
+			LOGGER.error(String.format("Failed to write cached sync data %s", file), e);
+		}
+	}
+	
+	private static void pruneCacheFolder(final Path folder) throws IOException
+	{
+		List<Path> oldFiles;
+		try (Stream<Path> files = Files.list(folder))
+		{
+			oldFiles = files
+				.filter(path -> path.getFileName().toString().endsWith(CACHE_EXTENSION))
+				.sorted(Comparator.comparing(DataSyncChannel::getLastModifiedMillis).reversed())
+				.skip(CACHED_SNAPSHOTS_PER_CHANNEL)
+				.toList();
+		}
+		for (Path path : oldFiles)
+		{
+			Files.deleteIfExists(path);
+		}
+	}
+	
+	private static long getLastModifiedMillis(final Path path)
+	{
+		try
+		{
+			return Files.getLastModifiedTime(path).toMillis();
+		}
+		catch (IOException e)
+		{
+			return 0L;
+		}
+	}
+	
+	private static byte[] hash(final byte[] bytes)
+	{
+		return Hashing.sha256().hashBytes(bytes).asBytes();
+	}
+	
+	/**
+	 * Filter determining which data entries are synced to which players
+	 * @param <FINE> The type of the data entries being synced
+	 */
+	@FunctionalInterface
+	public static interface SyncFilter<FINE>
+	{
+		/**
+		 * Called on the server thread when data is synced to a player.
+		 * Data is synced on datapack sync; use {@link DataSyncChannel#resync(ServerPlayer)} to sync a player again when the result of this may have changed.
+		 * @param player The player data is being synced to
+		 * @param id The id of a data entry
+		 * @param value The data entry
+		 * @return true if the player should receive the entry, false otherwise
+		 */
+		public boolean isVisible(ServerPlayer player, ResourceLocation id, FINE value);
+	}
+	
+	/**
+	 * Client-only event subscriptions, in a separate class so client event classes aren't loaded on servers
+	 */
+	private static class ClientEvents
+	{
+		private static void subscribe(final DataSyncChannel<?> channel)
+		{
+			NeoForge.EVENT_BUS.addListener(ClientPlayerNetworkEvent.LoggingOut.class, event -> channel.clearClientData());
+		}
+	}
+	
+	/**
+	 * Encoded state of one version of the server data.
+	 * Values are read from the source map as they're needed rather than held here,
+	 * so data kept off-heap (see {@link OffHeapDataMap}) stays off-heap.
+	 * @param <FINE> The type of the data entries
+	 */
+	private static class Generation<FINE>
+	{
+		private final Map<ResourceLocation, FINE> source;
+		/** ids of the source's entries, in the order they're encoded **/
+		private final List<ResourceLocation> ids;
+		private final BitSet allEntries;
+		/** encoded id and value of each entry, encoded when first needed **/
+		private final byte[][] fragments;
+		/** encoded payloads, keyed by which entries they contain **/
+		private final Map<BitSet, Snapshot> snapshots = new ConcurrentHashMap<>();
+		
+		private Generation(final Map<ResourceLocation, FINE> source)
+		{
+			this.source = source;
+			// sort entries so that the same data always has the same hash, regardless of map iteration order
+			this.ids = source.keySet().stream()
+				.sorted()
+				.toList();
+			this.allEntries = new BitSet(this.ids.size());
+			this.allEntries.set(0, this.ids.size());
+			this.fragments = new byte[this.ids.size()][];
+		}
+	}
+	
+	/**
+	 * Encoded form of a server-side data map
+	 * @param hash SHA-256 hash of the encoded bytes
+	 * @param bytes The encoded bytes
+	 */
+	private static record Snapshot(byte[] hash, byte[] bytes) {}
+	
+	/**
+	 * Most recent data published to the client mirror
+	 * @param <FINE> The type of the data entries
+	 * @param sequence The order in which the payload containing the data was received
+	 * @param hash Hash of the encoded data, or null if the data didn't come from the server
+	 * @param data The decoded data
+	 * @param processed Values derived from the data by each client post-processor, in the order the post-processors were added
+	 */
+	private static record ClientState<FINE>(long sequence, @Nullable byte[] hash, Map<ResourceLocation, FINE> data, List<Object> processed) {}
+	
+	/**
+	 * Value derived by a client post-processor which was added after the state was published
+	 * @param <FINE> The type of the data entries
+	 * @param state The state the value was derived from
+	 * @param value The derived value
+	 */
+	private static record LateProcessed<FINE>(ClientState<FINE> state, @Nullable Object value) {}
+	
+	/**
+	 * Sent from server to client to indicate the hash of the current data
+	 * @param type The channel-specific payload type
+	 * @param hash The hash of the encoded data
+	 */
+	public static record HashPayload(CustomPacketPayload.Type<HashPayload> type, byte[] hash) implements CustomPacketPayload
+	{
+		static StreamCodec<ByteBuf, HashPayload> streamCodec(final CustomPacketPayload.Type<HashPayload> type)
+		{
+			return ByteBufCodecs.BYTE_ARRAY.map(hash -> new HashPayload(type, hash), HashPayload::hash);
+		}
+	}
+	
+	/**
+	 * Sent from client to server when the client doesn't have data matching the hash it received
+	 * @param type The channel-specific payload type
+	 * @param hash The hash the client received
+	 */
+	public static record RequestPayload(CustomPacketPayload.Type<RequestPayload> type, byte[] hash) implements CustomPacketPayload
+	{
+		static StreamCodec<ByteBuf, RequestPayload> streamCodec(final CustomPacketPayload.Type<RequestPayload> type)
+		{
+			return ByteBufCodecs.BYTE_ARRAY.map(hash -> new RequestPayload(type, hash), RequestPayload::hash);
+		}
+	}
+	
+	/**
+	 * Sent from server to client containing the full encoded data
+	 * @param type The channel-specific payload type
+	 * @param hash The hash of the encoded data
+	 * @param data The encoded data
+	 */
+	public static record DataPayload(CustomPacketPayload.Type<DataPayload> type, byte[] hash, byte[] data) implements CustomPacketPayload
+	{
+		static StreamCodec<ByteBuf, DataPayload> streamCodec(final CustomPacketPayload.Type<DataPayload> type)
+		{
+			return StreamCodec.composite(
+				ByteBufCodecs.BYTE_ARRAY, DataPayload::hash,
+				ByteBufCodecs.BYTE_ARRAY, DataPayload::data,
+				(hash, data) -> new DataPayload(type, hash, data));
+		}
+	}
+}
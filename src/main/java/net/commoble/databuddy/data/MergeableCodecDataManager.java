@@ -34,6 +34,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -43,6 +46,8 @@ import com.google.gson.JsonParser;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.JsonOps;
 
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
@@ -76,6 +81,9 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 	private final String folderName;
 	private final Codec<RAW> codec;
 	private final Function<List<RAW>, FINE> merger;
+	private @Nullable DataSyncChannel<FINE> syncChannel = null;
+	private @Nullable StreamCodec<? super ByteBuf, FINE> offHeapCodec = null;
+	private int offHeapCacheSize = 0;
 	
 	/**
 	 * Initialize a data manager with the given folder name, codec, and merger
@@ -97,6 +105,23 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 		this.merger = merger;
 	}
 	
+	/**
+	 * Causes this manager to keep its data encoded off-heap in an {@link OffHeapDataMap} rather than as on-heap objects.
+	 * Recommended for datasets large enough that their decoded objects cause long garbage collection pauses.
+	 * Should be called during construction of your mod, before data is loaded.
+	 * A previous map's direct memory is freed once that map is no longer reachable,
+	 * so threads which are still reading the previous map during a reload can safely finish doing so.
+	 * @param streamCodec StreamCodec to encode and decode data entries with
+	 * @param cacheSize Maximum number of decoded entries to keep on the heap, or 0 to decode entries every time they are accessed
+	 * @return this manager object
+	 */
+	public MergeableCodecDataManager<RAW, FINE> storeOffHeap(final StreamCodec<? super ByteBuf, FINE> streamCodec, final int cacheSize)
+	{
+		this.offHeapCodec = streamCodec;
+		this.offHeapCacheSize = cacheSize;
+		return this;
+	}
+	
 	/**
 	 * @return The immutable map of data entries
 	 */
@@ -104,6 +129,66 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 	{
 		return this.data;
 	}
+	
+	/**
+	 * @return The most recent data received from the server if this manager was subscribed via
+	 * {@link #subscribeAsSyncable(ResourceLocation, StreamCodec)}, or an empty map otherwise
+	 */
+	public Map<ResourceLocation, FINE> getClientData()
+	{
+		return this.syncChannel == null
+			? Map.of()
+			: this.syncChannel.getClientData();
+	}
+	
+	/**
+	 * Adds a listener that is called on the client each time new data from the server is published to {@link #getClientData()}.
+	 * Listeners are called on a background thread; see {@link DataSyncChannel#addClientListener(Consumer)}.
+	 * @param listener Consumer of the newly published data
+	 * @return this manager object
+	 * @throws IllegalStateException if this manager was not subscribed via {@link #subscribeAsSyncable(ResourceLocation, StreamCodec)}
+	 */
+	public MergeableCodecDataManager<RAW, FINE> addClientListener(final Consumer<Map<ResourceLocation, FINE>> listener)
+	{
+		if (this.syncChannel == null)
+		{
+			throw new IllegalStateException("Cannot add client listener to data manager " + this.folderName + " before calling subscribeAsSyncable");
+		}
+		this.syncChannel.addClientListener(listener);
+		return this;
+	}
+	
+	/**
+	 * Syncs the data visible to a player again, e.g. after something affecting the manager's SyncFilter changed for that player;
+	 * see {@link DataSyncChannel#resync(ServerPlayer)}.
+	 * @param player The player to sync data to
+	 * @throws IllegalStateException if this manager was not subscribed via {@link #subscribeAsSyncable(ResourceLocation, StreamCodec)}
+	 */
+	public void resync(final ServerPlayer player)
+	{
+		if (this.syncChannel == null)
+		{
+			throw new IllegalStateException("Cannot resync data manager " + this.folderName + " before calling subscribeAsSyncable");
+		}
+		this.syncChannel.resync(player);
+	}
+	
+	/**
+	 * Adds a post-processing stage that derives a value from data received from the server,
+	 * published atomically with the data; see {@link DataSyncChannel#addClientPostProcessor(Function)}.
+	 * @param <R> The type of the derived value
+	 * @param postProcessor Function to derive a value from the received data
+	 * @return Supplier of the value derived from the data currently returned by {@link #getClientData()}
+	 * @throws IllegalStateException if this manager was not subscribed via {@link #subscribeAsSyncable(ResourceLocation, StreamCodec)}
+	 */
+	public <R> Supplier<R> addClientPostProcessor(final Function<? super Map<ResourceLocation, FINE>, ? extends R> postProcessor)
+	{
+		if (this.syncChannel == null)
+		{
+			throw new IllegalStateException("Cannot add client post-processor to data manager " + this.folderName + " before calling subscribeAsSyncable");
+		}
+		return this.syncChannel.addClientPostProcessor(postProcessor);
+	}
 
 	/** Off-thread processing (can include reading files from hard drive) **/
 	@Override
@@ -111,8 +196,33 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 	{
 		LOGGER.info("Beginning loading of data for data loader: {}", this.folderName);
 		final Map<ResourceLocation, FINE> map = new HashMap<>();
+		final @Nullable OffHeapDataMap.Builder<FINE> offHeapBuilder = this.offHeapCodec == null
+			? null
+			: OffHeapDataMap.builder(this.offHeapCodec, this.offHeapCacheSize);
 
 		Map<ResourceLocation,List<Resource>> resourceStacks = resourceManager.listResourceStacks(this.folderName, id -> id.getPath().endsWith(JSON_EXTENSION));
+		try
+		{
+			this.readResources(resourceStacks, map, offHeapBuilder);
+		}
+		catch (RuntimeException e)
+		{
+			if (offHeapBuilder != null)
+			{
+				offHeapBuilder.discard();
+			}
+			throw e;
+		}
+
+		final Map<ResourceLocation, FINE> result = offHeapBuilder != null
+			? offHeapBuilder.build()
+			: Map.copyOf(map);
+		LOGGER.info("Data loader for {} loaded {} finalized objects", this.folderName, result.size());
+		return result;
+	}
+	
+	private void readResources(final Map<ResourceLocation,List<Resource>> resourceStacks, final Map<ResourceLocation, FINE> map, final @Nullable OffHeapDataMap.Builder<FINE> offHeapBuilder)
+	{
 		for (var entry : resourceStacks.entrySet())
 		{
 			List<RAW> raws = new ArrayList<>();
@@ -136,11 +246,17 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 					LOGGER.error(String.format(Locale.ENGLISH, "Error reading resource %s in folder %s from pack %s: ", id, this.folderName, resource.sourcePackId()), e);
 				}
 			}
-			map.put(id, merger.apply(raws));
+			FINE fine = merger.apply(raws);
+			if (offHeapBuilder != null)
+			{
+				// encode now so the merged object doesn't need to stay on the heap
+				offHeapBuilder.put(id, fine);
+			}
+			else
+			{
+				map.put(id, fine);
+			}
 		}
-
-		LOGGER.info("Data loader for {} loaded {} finalized objects", this.folderName, this.data.size());
-		return Map.copyOf(map);
 	}
 	
 	/** Main-thread processing, runs after prepare concludes **/
@@ -148,6 +264,8 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 	protected void apply(final Map<ResourceLocation, FINE> processedData, final ResourceManager resourceManager, final ProfilerFiller profiler)
 	{
 		// now that we're on the main thread, we can finalize the data
+		// an old off-heap map isn't released here, as other threads (e.g. worldgen) may still be reading it;
+		// its direct memory is freed once it becomes unreachable
 		this.data = processedData;
 	}
 
@@ -175,4 +293,33 @@ public class MergeableCodecDataManager<RAW, FINE> extends SimplePreparableReload
 		NeoForge.EVENT_BUS.addListener(syncEventHandler);
 		return this;
 	}
+	
+	/**
+	 * This should be called at most once, during construction of your mod, and as an alternative to {@link #subscribeAsSyncable(Function)}.
+	 * Creates a {@link DataSyncChannel} which syncs this manager's data to clients without a user-defined packet.
+	 * Clients cache received data on disk and only download the data again when the server's data has changed.
+	 * Synced data can be retrieved on the client via {@link #getClientData()}.
+	 * @param channelId Unique id of the sync channel, e.g. "yourmod:cheeses". The namespace must be your modid.
+	 * @param streamCodec StreamCodec to write data entries to the network and the client's disk cache with
+	 * @return this manager object
+	 */
+	public MergeableCodecDataManager<RAW, FINE> subscribeAsSyncable(final ResourceLocation channelId, final StreamCodec<? super ByteBuf, FINE> streamCodec)
+	{
+		return this.subscribeAsSyncable(channelId, streamCodec, null);
+	}
+	
+	/**
+	 * This should be called at most once, during construction of your mod, and as an alternative to {@link #subscribeAsSyncable(Function)}.
+	 * As {@link #subscribeAsSyncable(ResourceLocation, StreamCodec)}, but each player only receives the entries visible to them.
+	 * Visibility is checked when data is synced, i.e. when a player logs in or datapacks are reloaded.
+	 * @param channelId Unique id of the sync channel, e.g. "yourmod:cheeses". The namespace must be your modid.
+	 * @param streamCodec StreamCodec to write data entries to the network and the client's disk cache with
+	 * @param filter Filter determining which entries each player receives, or null to send all entries to all players
+	 * @return this manager object
+	 */
+	public MergeableCodecDataManager<RAW, FINE> subscribeAsSyncable(final ResourceLocation channelId, final StreamCodec<? super ByteBuf, FINE> streamCodec, final @Nullable DataSyncChannel.SyncFilter<FINE> filter)
+	{
+		this.syncChannel = DataSyncChannel.subscribe(channelId, streamCodec, this::getData, filter);
+		return this;
+	}
 }
@@ -0,0 +1,309 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.data;
+
+import java.lang.ref.Cleaner;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * <p>Immutable map which keeps its values encoded in a direct (off-heap) buffer, decoding values via a StreamCodec when they are accessed.
+ * This keeps very large datasets out of the garbage-collected heap (aside from the keys and an index of offsets),
+ * at the cost of decoding values on every access.</p>
+ * 
+ * <p>An optional on-heap cache of recently accessed values can be used to avoid repeatedly decoding frequently accessed values.</p>
+ * 
+ * <p>Values returned from the map are new instances each time they are decoded, so identity comparisons
+ * between values should be avoided. Maps can be safely read from multiple threads.</p>
+ * 
+ * <p>The direct memory of a map is freed once the map is no longer reachable, or earlier via {@link #release()}.
+ * Values being decoded while a map is released finish decoding before the memory is freed;
+ * decoding values of a map after it has been released throws an IllegalStateException.</p>
+ * @param <V> The type of the values in the map
+ */
+public class OffHeapDataMap<V> extends AbstractMap<ResourceLocation, V>
+{
+	private static final Cleaner CLEANER = Cleaner.create();
+	
+	private final ByteBuf buffer;
+	private final Releaser releaser;
+	/** keys to packed offset (high 32 bits) and length (low 32 bits) of encoded values **/
+	private final Object2LongMap<ResourceLocation> index;
+	private final StreamCodec<? super ByteBuf, V> codec;
+	private final @Nullable Cache<ResourceLocation, V> cache;
+	private @Nullable Set<Entry<ResourceLocation, V>> entrySet = null;
+	
+	private OffHeapDataMap(final ByteBuf buffer, final Object2LongMap<ResourceLocation> index, final StreamCodec<? super ByteBuf, V> codec, final int cacheSize)
+	{
+		this.buffer = buffer;
+		this.releaser = new Releaser(buffer, new AtomicBoolean(false));
+		CLEANER.register(this, this.releaser);
+		this.index = index;
+		this.codec = codec;
+		this.cache = cacheSize > 0
+			? CacheBuilder.newBuilder().maximumSize(cacheSize).build()
+			: null;
+	}
+	
+	/**
+	 * Creates a builder for an off-heap map
+	 * @param <V> The type of the values in the map
+	 * @param codec StreamCodec to encode and decode values with
+	 * @param cacheSize Maximum number of decoded values to keep on the heap, or 0 to not cache decoded values
+	 * @return A new builder
+	 */
+	public static <V> Builder<V> builder(final StreamCodec<? super ByteBuf, V> codec, final int cacheSize)
+	{
+		return new Builder<>(codec, cacheSize);
+	}
+
+	@Override
+	public @Nullable V get(final Object key)
+	{
+		if (!(key instanceof ResourceLocation id))
+		{
+			return null;
+		}
+		long packed = this.index.getOrDefault(id, -1L);
+		if (packed == -1L)
+		{
+			return null;
+		}
+		if (this.cache == null)
+		{
+			return this.decode(packed);
+		}
+		@Nullable V value = this.cache.getIfPresent(id);
+		if (value == null)
+		{
+			value = this.decode(packed);
+			this.cache.put(id, value);
+		}
+		return value;
+	}
+	
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		return this.index.containsKey(key);
+	}
+
+	@Override
+	public int size()
+	{
+		return this.index.size();
+	}
+	
+	@Override
+	public Set<ResourceLocation> keySet()
+	{
+		return Collections.unmodifiableSet(this.index.keySet());
+	}
+
+	/**
+	 * Values are decoded as they are iterated over; iterating over the whole entry set of a large map is expensive.
+	 */
+	@Override
+	public Set<Entry<ResourceLocation, V>> entrySet()
+	{
+		if (this.entrySet == null)
+		{
+			this.entrySet = new AbstractSet<>()
+			{
+				@Override
+				public Iterator<Entry<ResourceLocation, V>> iterator()
+				{
+					Iterator<ResourceLocation> keys = OffHeapDataMap.this.index.keySet().iterator();
+					return new Iterator<>()
+					{
+						@Override
+						public boolean hasNext()
+						{
+							return keys.hasNext();
+						}
+
+						@Override
+						public Entry<ResourceLocation, V> next()
+						{
+							ResourceLocation key = keys.next();
+							return new SimpleImmutableEntry<>(key, OffHeapDataMap.this.get(key));
+						}
+					};
+				}
+
+				@Override
+				public int size()
+				{
+					return OffHeapDataMap.this.size();
+				}
+			};
+		}
+		return this.entrySet;
+	}
+	
+	/**
+	 * Frees the direct memory holding this map's encoded values once any values currently being decoded are finished.
+	 * Values cached on the heap are also discarded. Does nothing if the map has already been released.
+	 * Calling this is optional, as the memory is also freed once the map is no longer reachable.
+	 */
+	public void release()
+	{
+		if (this.cache != null)
+		{
+			this.cache.invalidateAll();
+		}
+		this.releaser.run();
+	}
+	
+	private V decode(final long packed)
+	{
+		int offset = (int)(packed >>> 32);
+		int length = (int)packed;
+		// each read holds a reference to the buffer, so a concurrent release can't free the memory mid-read
+		try
+		{
+			this.buffer.retain();
+		}
+		catch (IllegalReferenceCountException e)
+		{
+			throw new IllegalStateException("Cannot read values of an OffHeapDataMap after it has been released", e);
+		}
+		try
+		{
+			// slices have their own reader and writer indices, so concurrent reads don't interfere with each other
+			return this.codec.decode(this.buffer.slice(offset, length));
+		}
+		finally
+		{
+			this.buffer.release();
+		}
+	}
+	
+	/**
+	 * Releases the map's reference to its buffer at most once, either when the map is released or when it becomes unreachable.
+	 * Must not reference the map, or the map would never become unreachable.
+	 */
+	private static record Releaser(ByteBuf buffer, AtomicBoolean released) implements Runnable
+	{
+		@Override
+		public void run()
+		{
+			if (this.released.compareAndSet(false, true))
+			{
+				this.buffer.release();
+			}
+		}
+	}
+	
+	/**
+	 * Builder for off-heap maps; values are encoded as they are added, so the decoded values can be garbage collected while building.
+	 * Builders are not thread-safe. Values are staged in direct memory, which must be released by either {@link #build()}
+	 * (which transfers it to the built map) or {@link #discard()}.
+	 * @param <V> The type of the values in the map
+	 */
+	public static class Builder<V>
+	{
+		private final StreamCodec<? super ByteBuf, V> codec;
+		private final int cacheSize;
+		private final ByteBuf staging = Unpooled.directBuffer();
+		private final Object2LongMap<ResourceLocation> index = new Object2LongOpenHashMap<>();
+		
+		private Builder(final StreamCodec<? super ByteBuf, V> codec, final int cacheSize)
+		{
+			this.codec = codec;
+			this.cacheSize = cacheSize;
+		}
+		
+		/**
+		 * Encodes a value and adds it to the map being built
+		 * @param id The key of the value
+		 * @param value The value to encode
+		 * @return this builder
+		 */
+		public Builder<V> put(final ResourceLocation id, final V value)
+		{
+			int offset = this.staging.writerIndex();
+			try
+			{
+				this.codec.encode(this.staging, value);
+			}
+			catch (RuntimeException e)
+			{
+				// don't leave a partially written value in the staging buffer
+				this.staging.writerIndex(offset);
+				throw e;
+			}
+			int length = this.staging.writerIndex() - offset;
+			this.index.put(id, ((long)offset << 32) | (length & 0xFFFFFFFFL));
+			return this;
+		}
+		
+		/**
+		 * Creates the map, which takes ownership of the staged values. The builder should not be used afterward.
+		 * @return A new off-heap map
+		 */
+		public OffHeapDataMap<V> build()
+		{
+			try
+			{
+				// trim unused capacity (copies within direct memory)
+				this.staging.capacity(this.staging.writerIndex());
+			}
+			catch (RuntimeException e)
+			{
+				this.staging.release();
+				throw e;
+			}
+			return new OffHeapDataMap<>(this.staging.asReadOnly(), this.index, this.codec, this.cacheSize);
+		}
+		
+		/**
+		 * Releases the staged values without building a map, e.g. if loading fails. The builder should not be used afterward.
+		 */
+		public void discard()
+		{
+			this.staging.release();
+		}
+	}
+}
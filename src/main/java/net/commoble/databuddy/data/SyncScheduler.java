@@ -0,0 +1,178 @@
+/*
+
+The MIT License (MIT)
+
+Copyright (c) 2026 Joseph Bettendorff a.k.a. "Commoble"
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+ */
+
+package net.commoble.databuddy.data;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+/**
+ * <p>Paces the delivery of large datapack sync payloads sent by {@link DataSyncChannel}s.
+ * Rather than sending all payloads immediately (which can cause bandwidth and tick time spikes when
+ * many players join at once, e.g. after a server restart), payloads are queued and sent at the end of each server tick
+ * until a per-tick byte budget is used up. At least one payload is sent each tick regardless of the budget.</p>
+ * 
+ * <p>Payloads for players who have recently logged in are sent before payloads for players who are already playing
+ * (e.g. payloads resulting from a /reload).</p>
+ * 
+ * <p>Only one payload per player per payload type is queued at a time; queueing another replaces the queued payload
+ * with the newer one, so repeated requests from one client can't flood the queues.</p>
+ * 
+ * <p>All methods should only be called on the server thread.</p>
+ */
+public final class SyncScheduler
+{
+	private SyncScheduler() {} // utility class
+	
+	/** Default maximum number of payload bytes to send per tick (256 KiB, or 5 MiB per second at 20 TPS) **/
+	public static final int DEFAULT_BYTES_PER_TICK = 256 * 1024;
+	/** Number of ticks after a player logs in during which their payloads have priority **/
+	public static final int LOGIN_PRIORITY_TICKS = 200;
+	
+	private static int bytesPerTick = DEFAULT_BYTES_PER_TICK;
+	private static boolean subscribed = false;
+	private static long currentTick = 0L;
+	private static final Queue<QueueKey> LOGIN_QUEUE = new ArrayDeque<>();
+	private static final Queue<QueueKey> QUEUE = new ArrayDeque<>();
+	/** most recent payload queued for each player and payload type **/
+	private static final Map<QueueKey, QueuedPayload> PENDING = new HashMap<>();
+	private static final Map<UUID, Long> LOGIN_TICKS = new HashMap<>();
+	
+	/**
+	 * Sets the maximum number of payload bytes to send per tick, across all sync channels.
+	 * @param bytes Number of bytes per tick. Values less than 1 disable pacing, sending all queued payloads each tick.
+	 */
+	public static void setBytesPerTick(final int bytes)
+	{
+		bytesPerTick = bytes;
+	}
+	
+	/**
+	 * Subscribes the scheduler to the events it needs; does nothing if already subscribed.
+	 * Synchronized as mods (and their sync channels) are constructed in parallel.
+	 */
+	static synchronized void subscribe()
+	{
+		if (!subscribed)
+		{
+			subscribed = true;
+			NeoForge.EVENT_BUS.addListener(ServerTickEvent.Post.class, SyncScheduler::onServerTick);
+			NeoForge.EVENT_BUS.addListener(PlayerEvent.PlayerLoggedOutEvent.class, SyncScheduler::onPlayerLoggedOut);
+			NeoForge.EVENT_BUS.addListener(ServerStoppedEvent.class, SyncScheduler::onServerStopped);
+		}
+	}
+	
+	/**
+	 * Marks a player as logging in, giving their payloads priority for a short time
+	 * @param player The player who is logging in
+	 */
+	static void markLoggingIn(final ServerPlayer player)
+	{
+		LOGIN_TICKS.put(player.getUUID(), currentTick);
+	}
+	
+	/**
+	 * Queues a payload to be sent to a player
+	 * @param player The player to send the payload to
+	 * @param payload The payload to send
+	 * @param size Approximate size of the payload in bytes
+	 */
+	static void enqueue(final ServerPlayer player, final CustomPacketPayload payload, final int size)
+	{
+		QueueKey key = new QueueKey(player.getUUID(), payload.type());
+		if (PENDING.put(key, new QueuedPayload(player, payload, size)) != null)
+		{
+			// already queued; the newer payload replaces the queued one but keeps its place in the queue
+			return;
+		}
+		Long loginTick = LOGIN_TICKS.get(player.getUUID());
+		if (loginTick != null && currentTick - loginTick <= LOGIN_PRIORITY_TICKS)
+		{
+			LOGIN_QUEUE.add(key);
+		}
+		else
+		{
+			QUEUE.add(key);
+		}
+	}
+	
+	private static void onServerTick(final ServerTickEvent.Post event)
+	{
+		currentTick++;
+		int budget = bytesPerTick;
+		boolean sentAny = false;
+		while (budget > 0 || bytesPerTick < 1 || !sentAny)
+		{
+			QueueKey key = LOGIN_QUEUE.poll();
+			if (key == null)
+			{
+				key = QUEUE.poll();
+				if (key == null)
+				{
+					break;
+				}
+			}
+			QueuedPayload next = PENDING.remove(key);
+			if (next == null || next.player().hasDisconnected())
+			{
+				continue;
+			}
+			PacketDistributor.sendToPlayer(next.player(), next.payload());
+			budget -= next.size();
+			sentAny = true;
+		}
+	}
+	
+	private static void onPlayerLoggedOut(final PlayerEvent.PlayerLoggedOutEvent event)
+	{
+		UUID uuid = event.getEntity().getUUID();
+		LOGIN_TICKS.remove(uuid);
+		PENDING.keySet().removeIf(key -> key.player().equals(uuid));
+	}
+	
+	private static void onServerStopped(final ServerStoppedEvent event)
+	{
+		LOGIN_QUEUE.clear();
+		QUEUE.clear();
+		PENDING.clear();
+		LOGIN_TICKS.clear();
+	}
+	
+	private static record QueueKey(UUID player, CustomPacketPayload.Type<?> type) {}
+	
+	private static record QueuedPayload(ServerPlayer player, CustomPacketPayload payload, int size) {}
+}